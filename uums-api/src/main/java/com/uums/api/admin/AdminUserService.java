@@ -12,7 +12,9 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class AdminUserService {
@@ -20,11 +22,17 @@ public class AdminUserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
 
-    public AdminUserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public AdminUserService(
+            UserRepository userRepository,
+            RoleRepository roleRepository,
+            PasswordEncoder passwordEncoder,
+            PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Transactional(readOnly = true)
@@ -39,8 +47,15 @@ public class AdminUserService {
         return toResponse(user);
     }
 
-    @Transactional
+    // not transactional: the new password is hashed before the short update transaction opens
     public AdminUserSummaryResponse updateUser(Long userId, AdminUpdateUserRequest request) {
+        String passwordHash = request.password() != null && !request.password().isBlank()
+                ? passwordEncoder.encode(request.password())
+                : null;
+        return transactionTemplate.execute(status -> applyUpdate(userId, request, passwordHash));
+    }
+
+    private AdminUserSummaryResponse applyUpdate(Long userId, AdminUpdateUserRequest request, String passwordHash) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new AuthException("User not found"));
 
@@ -48,8 +63,8 @@ public class AdminUserService {
             user.setAccountStatus(request.accountStatus());
         }
 
-        if (request.password() != null && !request.password().isBlank()) {
-            user.setPasswordHash(passwordEncoder.encode(request.password()));
+        if (passwordHash != null) {
+            user.setPasswordHash(passwordHash);
             user.setFailedLoginAttempts(0);
         }
 
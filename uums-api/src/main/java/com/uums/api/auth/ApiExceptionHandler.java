@@ -1,8 +1,13 @@
 package com.uums.api.auth;
 
+import com.uums.api.security.PasswordHashingSaturatedException;
+import com.uums.api.tenant.dto.TrafficIngestResponse;
+import com.uums.api.tenant.ingest.TrafficBackpressureException;
 import java.time.OffsetDateTime;
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -26,4 +31,18 @@ public class ApiExceptionHandler {
                 .orElse("Validation failed");
         return Map.of("timestamp", OffsetDateTime.now().toString(), "error", error);
     }
+
+    @ExceptionHandler(PasswordHashingSaturatedException.class)
+    public ResponseEntity<Map<String, Object>> handlePasswordHashingSaturated(PasswordHashingSaturatedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of("timestamp", OffsetDateTime.now().toString(), "error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(TrafficBackpressureException.class)
+    public ResponseEntity<TrafficIngestResponse> handleTrafficBackpressure(TrafficBackpressureException ex) {
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getResponse());
+    }
 }
@@ -0,0 +1,43 @@
+package com.uums.api.auth.challenge;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A pending one-time-password challenge. Only a digest of the OTP is kept, bound to the challenge id so
+ * one digest cannot be replayed against another challenge.
+ */
+public record Challenge(
+        String challengeId, ChallengePurpose purpose, String username, String otpHash, long expiresAtMs) {
+
+    public static Challenge issue(String challengeId, ChallengePurpose purpose, String username, String otp,
+                                  long ttlSeconds) {
+        return new Challenge(challengeId, purpose, username, hashOtp(challengeId, otp),
+                System.currentTimeMillis() + ttlSeconds * 1000);
+    }
+
+    public boolean isExpired(long nowMs) {
+        return nowMs >= expiresAtMs;
+    }
+
+    public boolean otpMatches(String otp) {
+        if (otp == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                otpHash.getBytes(StandardCharsets.US_ASCII),
+                hashOtp(challengeId, otp).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static String hashOtp(String challengeId, String otp) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((challengeId + ':' + otp).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.uums.api.auth.challenge;
+
+public enum ChallengePurpose {
+    MFA,
+    RECOVERY
+}
@@ -0,0 +1,20 @@
+package com.uums.api.auth.challenge;
+
+import com.uums.api.metrics.MetricsSource;
+import java.util.Optional;
+
+/**
+ * Pending MFA and recovery challenges. Implementations drop expired state on their own and answer
+ * {@code 503} rather than grow past their size cap.
+ */
+public interface ChallengeStore extends MetricsSource {
+
+    /** Records a new challenge and returns the id the client presents to verify it. */
+    String issue(ChallengePurpose purpose, String username, String otp, long ttlSeconds);
+
+    /** The live challenge with this id, if it exists, has not expired and was issued for {@code purpose}. */
+    Optional<Challenge> find(String challengeId, ChallengePurpose purpose);
+
+    /** Consumes the challenge; only one caller gets {@code true} for a given id. */
+    boolean remove(String challengeId);
+}
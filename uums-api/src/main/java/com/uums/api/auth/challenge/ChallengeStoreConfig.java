@@ -0,0 +1,33 @@
+package com.uums.api.auth.challenge;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class ChallengeStoreConfig {
+
+    @Bean
+    ChallengeStore challengeStore(
+            ObjectProvider<JdbcTemplate> jdbcTemplate,
+            @Value("${uums.security.challenge-store.type:memory}") String type,
+            @Value("${uums.security.challenge-store.max-challenges:100000}") int maxChallenges,
+            @Value("${uums.security.challenge-store.tick-ms:1000}") long tickMs,
+            @Value("${uums.security.challenge-store.wheel-slots:512}") int wheelSlots,
+            @Value("${uums.security.challenge-store.token-secret:}") String tokenSecret) {
+        return switch (type) {
+            case "memory" -> new InMemoryChallengeStore(maxChallenges, tickMs, wheelSlots);
+            case "jdbc" -> new JdbcChallengeStore(jdbcTemplate.getObject(), maxChallenges);
+            case "stateless" -> {
+                if (tokenSecret.isBlank()) {
+                    throw new IllegalStateException("uums.security.challenge-store.token-secret must be set");
+                }
+                yield new StatelessChallengeStore(
+                        tokenSecret, new InMemoryChallengeStore(maxChallenges, tickMs, wheelSlots));
+            }
+            default -> throw new IllegalStateException("Unknown uums.security.challenge-store.type: " + type);
+        };
+    }
+}
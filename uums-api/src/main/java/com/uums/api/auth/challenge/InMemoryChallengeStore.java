@@ -0,0 +1,120 @@
+package com.uums.api.auth.challenge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Node-local store. Expiry runs on a hashed timing wheel: each challenge is queued in the slot of its
+ * expiry tick and {@link #advance()} drains only the slots whose ticks have passed, so removal costs
+ * O(expired) rather than a scan of every pending challenge. Challenges due more than one revolution out
+ * are requeued until their tick comes round.
+ */
+public class InMemoryChallengeStore implements ChallengeStore {
+
+    private final Map<String, Challenge> challenges = new ConcurrentHashMap<>();
+    private final List<ConcurrentLinkedQueue<Challenge>> wheel;
+    private final long tickMs;
+    private final int maxChallenges;
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private long lastTick;
+
+    public InMemoryChallengeStore(int maxChallenges, long tickMs, int wheelSlots) {
+        this.maxChallenges = maxChallenges;
+        this.tickMs = tickMs;
+        this.wheel = new ArrayList<>(wheelSlots);
+        for (int i = 0; i < wheelSlots; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+        this.lastTick = System.currentTimeMillis() / tickMs;
+    }
+
+    @Override
+    public String issue(ChallengePurpose purpose, String username, String otp, long ttlSeconds) {
+        String challengeId = UUID.randomUUID().toString();
+        save(Challenge.issue(challengeId, purpose, username, otp, ttlSeconds));
+        return challengeId;
+    }
+
+    /** Adds the challenge unless one with the same id is already held; returns whether it was added. */
+    boolean save(Challenge challenge) {
+        if (size.incrementAndGet() > maxChallenges) {
+            size.decrementAndGet();
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending challenges");
+        }
+        if (challenges.putIfAbsent(challenge.challengeId(), challenge) != null) {
+            size.decrementAndGet();
+            return false;
+        }
+        slot(challenge.expiresAtMs() / tickMs).add(challenge);
+        return true;
+    }
+
+    @Override
+    public Optional<Challenge> find(String challengeId, ChallengePurpose purpose) {
+        Challenge challenge = challenges.get(challengeId);
+        if (challenge == null || challenge.purpose() != purpose || challenge.isExpired(System.currentTimeMillis())) {
+            return Optional.empty();
+        }
+        return Optional.of(challenge);
+    }
+
+    @Override
+    public boolean remove(String challengeId) {
+        Challenge challenge = challenges.remove(challengeId);
+        if (challenge == null) {
+            return false;
+        }
+        size.decrementAndGet();
+        return !challenge.isExpired(System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${uums.security.challenge-store.tick-ms:1000}")
+    public void advance() {
+        advance(System.currentTimeMillis());
+    }
+
+    synchronized void advance(long nowMs) {
+        long nowTick = nowMs / tickMs;
+        long fromTick = Math.max(lastTick + 1, nowTick - wheel.size() + 1);
+        for (long tick = fromTick; tick <= nowTick; tick++) {
+            ConcurrentLinkedQueue<Challenge> queue = slot(tick);
+            List<Challenge> notDue = new ArrayList<>();
+            Challenge entry;
+            while ((entry = queue.poll()) != null) {
+                if (!entry.isExpired(nowMs)) {
+                    notDue.add(entry);
+                } else if (challenges.remove(entry.challengeId(), entry)) {
+                    size.decrementAndGet();
+                    expired.increment();
+                }
+            }
+            queue.addAll(notDue);
+        }
+        lastTick = Math.max(lastTick, nowTick);
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return Map.of(
+                "auth.challenges.live", size.get(),
+                "auth.challenges.expired", expired.sum(),
+                "auth.challenges.rejected", rejected.sum());
+    }
+
+    private ConcurrentLinkedQueue<Challenge> slot(long tick) {
+        return wheel.get((int) Math.floorMod(tick, (long) wheel.size()));
+    }
+}
@@ -0,0 +1,119 @@
+package com.uums.api.auth.challenge;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Store shared by all replicas through the auth_challenge table, so a challenge issued on one node can be
+ * verified on another. Expired rows are ignored on read and deleted in bulk by {@link #purge()} through the
+ * expiry index. The size cap is checked against the row count taken by the last purge plus this node's own
+ * inserts and removals since, so an insert never counts the table; between purges the cluster can overshoot
+ * the cap by what the other replicas issued.
+ */
+public class JdbcChallengeStore implements ChallengeStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcChallengeStore.class);
+
+    private static final String INSERT = """
+            INSERT INTO auth_challenge (challenge_id, purpose, username, otp_hash, expires_at_ms)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String SELECT_LIVE = """
+            SELECT challenge_id, purpose, username, otp_hash, expires_at_ms FROM auth_challenge
+            WHERE challenge_id = ? AND purpose = ? AND expires_at_ms > ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxChallenges;
+    private final AtomicLong live = new AtomicLong();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public JdbcChallengeStore(JdbcTemplate jdbcTemplate, int maxChallenges) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxChallenges = maxChallenges;
+    }
+
+    @Override
+    public String issue(ChallengePurpose purpose, String username, String otp, long ttlSeconds) {
+        String challengeId = UUID.randomUUID().toString();
+        save(Challenge.issue(challengeId, purpose, username, otp, ttlSeconds));
+        return challengeId;
+    }
+
+    void save(Challenge challenge) {
+        long current;
+        do {
+            current = live.get();
+            if (current >= maxChallenges) {
+                rejected.increment();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending challenges");
+            }
+        } while (!live.compareAndSet(current, current + 1));
+        try {
+            jdbcTemplate.update(INSERT,
+                    challenge.challengeId(),
+                    challenge.purpose().name(),
+                    challenge.username(),
+                    challenge.otpHash(),
+                    challenge.expiresAtMs());
+        } catch (RuntimeException ex) {
+            live.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Optional<Challenge> find(String challengeId, ChallengePurpose purpose) {
+        List<Challenge> rows = jdbcTemplate.query(SELECT_LIVE,
+                (rs, rowNum) -> new Challenge(
+                        rs.getString("challenge_id"),
+                        ChallengePurpose.valueOf(rs.getString("purpose")),
+                        rs.getString("username"),
+                        rs.getString("otp_hash"),
+                        rs.getLong("expires_at_ms")),
+                challengeId, purpose.name(), System.currentTimeMillis());
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public boolean remove(String challengeId) {
+        boolean removed = jdbcTemplate.update("DELETE FROM auth_challenge WHERE challenge_id = ? AND expires_at_ms > ?",
+                challengeId, System.currentTimeMillis()) == 1;
+        if (removed) {
+            live.decrementAndGet();
+        }
+        return removed;
+    }
+
+    @Scheduled(fixedDelayString = "${uums.security.challenge-store.purge-interval-ms:60000}")
+    public void purge() {
+        try {
+            long nowMs = System.currentTimeMillis();
+            expired.add(jdbcTemplate.update("DELETE FROM auth_challenge WHERE expires_at_ms <= ?", nowMs));
+            Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM auth_challenge", Long.class);
+            live.set(count == null ? 0 : count);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to purge expired auth challenges", ex);
+        }
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return Map.of(
+                "auth.challenges.live", live.get(),
+                "auth.challenges.expired", expired.sum(),
+                "auth.challenges.rejected", rejected.sum());
+    }
+}
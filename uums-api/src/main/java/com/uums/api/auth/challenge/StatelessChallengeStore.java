@@ -0,0 +1,156 @@
+package com.uums.api.auth.challenge;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Keeps no pending state: the challenge id handed to the client is the challenge itself (purpose,
+ * username, expiry and OTP digest) sealed with AES-256-GCM, so any replica can open and check it without
+ * a lookup. Only consumed challenges are remembered, in a bounded replay cache that drops them once they
+ * would have expired anyway. That cache is per node, so use the jdbc store where a replay against another
+ * replica within the TTL matters.
+ */
+public class StatelessChallengeStore implements ChallengeStore {
+
+    private static final byte VERSION = 1;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final int NONCE_BYTES = 16;
+    private static final int OTP_HASH_BYTES = 32;
+    private static final int MAX_TOKEN_CHARS = 512;
+    private static final byte[] ASSOCIATED_DATA = "uums-challenge".getBytes(StandardCharsets.US_ASCII);
+    private static final ChallengePurpose[] PURPOSES = ChallengePurpose.values();
+
+    private final SecretKey key;
+    private final InMemoryChallengeStore consumed;
+    private final SecureRandom random = new SecureRandom();
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder invalidTokens = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+
+    public StatelessChallengeStore(String secret, InMemoryChallengeStore consumed) {
+        this.key = deriveKey(secret);
+        this.consumed = consumed;
+    }
+
+    @Override
+    public String issue(ChallengePurpose purpose, String username, String otp, long ttlSeconds) {
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        Challenge challenge = Challenge.issue(HexFormat.of().formatHex(nonce), purpose, username, otp, ttlSeconds);
+        byte[] user = username.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer plain = ByteBuffer.allocate(1 + Long.BYTES + NONCE_BYTES + OTP_HASH_BYTES + user.length)
+                .put((byte) purpose.ordinal())
+                .putLong(challenge.expiresAtMs())
+                .put(nonce)
+                .put(HexFormat.of().parseHex(challenge.otpHash()))
+                .put(user);
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = cipher(Cipher.ENCRYPT_MODE, iv);
+            byte[] sealed = cipher.doFinal(plain.array());
+            ByteBuffer token = ByteBuffer.allocate(1 + IV_BYTES + sealed.length).put(VERSION).put(iv).put(sealed);
+            issued.increment();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to seal challenge", ex);
+        }
+    }
+
+    @Override
+    public Optional<Challenge> find(String challengeId, ChallengePurpose purpose) {
+        return open(challengeId)
+                .filter(challenge -> challenge.purpose() == purpose)
+                .filter(challenge -> !challenge.isExpired(System.currentTimeMillis()));
+    }
+
+    @Override
+    public boolean remove(String challengeId) {
+        Optional<Challenge> challenge = open(challengeId);
+        if (challenge.isEmpty() || challenge.get().isExpired(System.currentTimeMillis())) {
+            return false;
+        }
+        if (!consumed.save(challenge.get())) {
+            replays.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${uums.security.challenge-store.tick-ms:1000}")
+    public void advance() {
+        consumed.advance();
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> replayCache = consumed.metrics();
+        return Map.of(
+                "auth.challenges.issued", issued.sum(),
+                "auth.challenges.invalid-tokens", invalidTokens.sum(),
+                "auth.challenges.replays", replays.sum(),
+                "auth.challenges.replay-cache", replayCache.get("auth.challenges.live"),
+                "auth.challenges.rejected", replayCache.get("auth.challenges.rejected"));
+    }
+
+    private Optional<Challenge> open(String token) {
+        if (token == null || token.length() > MAX_TOKEN_CHARS) {
+            invalidTokens.increment();
+            return Optional.empty();
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (in.remaining() < 1 + IV_BYTES || in.get() != VERSION) {
+                invalidTokens.increment();
+                return Optional.empty();
+            }
+            byte[] iv = new byte[IV_BYTES];
+            in.get(iv);
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE, iv);
+            ByteBuffer plain = ByteBuffer.wrap(cipher.doFinal(in.array(), in.position(), in.remaining()));
+            ChallengePurpose purpose = PURPOSES[plain.get()];
+            long expiresAtMs = plain.getLong();
+            byte[] nonce = new byte[NONCE_BYTES];
+            plain.get(nonce);
+            byte[] otpHash = new byte[OTP_HASH_BYTES];
+            plain.get(otpHash);
+            String username = StandardCharsets.UTF_8.decode(plain).toString();
+            return Optional.of(new Challenge(
+                    HexFormat.of().formatHex(nonce), purpose, username, HexFormat.of().formatHex(otpHash), expiresAtMs));
+        } catch (IllegalArgumentException | GeneralSecurityException ex) {
+            invalidTokens.increment();
+            return Optional.empty();
+        }
+    }
+
+    private Cipher cipher(int mode, byte[] iv) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(ASSOCIATED_DATA);
+        return cipher;
+    }
+
+    private static SecretKey deriveKey(String secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ASSOCIATED_DATA);
+            return new SecretKeySpec(digest.digest(secret.getBytes(StandardCharsets.UTF_8)), "AES");
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
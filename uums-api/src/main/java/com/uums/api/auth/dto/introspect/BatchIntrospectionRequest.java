@@ -0,0 +1,7 @@
+package com.uums.api.auth.dto.introspect;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public record BatchIntrospectionRequest(@NotEmpty List<String> tokens) {
+}
@@ -0,0 +1,7 @@
+package com.uums.api.auth.dto.introspect;
+
+import java.util.List;
+
+/** One result per requested token, in request order. */
+public record BatchIntrospectionResponse(List<IntrospectionResponse> results) {
+}
@@ -0,0 +1,6 @@
+package com.uums.api.auth.dto.introspect;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record IntrospectionRequest(@NotBlank String token) {
+}
@@ -0,0 +1,21 @@
+package com.uums.api.auth.dto.introspect;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * RFC 7662 introspection result. An inactive token is reported as {@code {"active": false}} only, without
+ * saying why.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IntrospectionResponse(
+        boolean active,
+        String sub,
+        @JsonProperty("token_type") String tokenType,
+        Long iat,
+        Long exp,
+        List<String> roles) {
+
+    public static final IntrospectionResponse INACTIVE = new IntrospectionResponse(false, null, null, null, null, null);
+}
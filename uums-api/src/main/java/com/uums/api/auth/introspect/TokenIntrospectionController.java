@@ -0,0 +1,43 @@
+package com.uums.api.auth.introspect;
+
+import com.uums.api.auth.dto.introspect.BatchIntrospectionRequest;
+import com.uums.api.auth.dto.introspect.BatchIntrospectionResponse;
+import com.uums.api.auth.dto.introspect.IntrospectionRequest;
+import com.uums.api.auth.dto.introspect.IntrospectionResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Token introspection for gateways, authenticated by {@code X-API-Key}. The single-token form accepts
+ * the RFC 7662 form post as well as JSON.
+ */
+@RestController
+@RequestMapping("/api/v1/auth/introspect")
+public class TokenIntrospectionController {
+
+    private final TokenIntrospectionService introspectionService;
+
+    public TokenIntrospectionController(TokenIntrospectionService introspectionService) {
+        this.introspectionService = introspectionService;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public IntrospectionResponse introspectForm(@RequestParam("token") String token) {
+        return introspectionService.introspect(token);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public IntrospectionResponse introspect(@Valid @RequestBody IntrospectionRequest request) {
+        return introspectionService.introspect(request.token());
+    }
+
+    @PostMapping("/batch")
+    public BatchIntrospectionResponse introspectBatch(@Valid @RequestBody BatchIntrospectionRequest request) {
+        return introspectionService.introspectAll(request.tokens());
+    }
+}
@@ -0,0 +1,73 @@
+package com.uums.api.auth.introspect;
+
+import com.uums.api.auth.AuthException;
+import com.uums.api.auth.dto.introspect.BatchIntrospectionResponse;
+import com.uums.api.auth.dto.introspect.IntrospectionResponse;
+import com.uums.api.security.JwtService;
+import com.uums.api.security.revocation.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class TokenIntrospectionService {
+
+    private final JwtService jwtService;
+    private final TokenRevocationService revocationService;
+    private final int maxBatchSize;
+
+    public TokenIntrospectionService(
+            JwtService jwtService,
+            TokenRevocationService revocationService,
+            @Value("${uums.security.introspection.max-batch-size:100}") int maxBatchSize) {
+        this.jwtService = jwtService;
+        this.revocationService = revocationService;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public IntrospectionResponse introspect(String token) {
+        Claims claims;
+        try {
+            claims = jwtService.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return IntrospectionResponse.INACTIVE;
+        }
+        String sessionId = claims.get("sid", String.class);
+        if (sessionId != null && revocationService.isSessionRevoked(sessionId)) {
+            return IntrospectionResponse.INACTIVE;
+        }
+        String tokenType = claims.get("typ", String.class);
+        // a rotated refresh token would trip reuse detection, so it is not usable any more
+        if ("refresh".equals(tokenType)
+                && (claims.getId() == null || revocationService.isRefreshTokenConsumed(claims.getId()))) {
+            return IntrospectionResponse.INACTIVE;
+        }
+        return new IntrospectionResponse(
+                true,
+                claims.getSubject(),
+                tokenType,
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant().getEpochSecond(),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant().getEpochSecond(),
+                roles(claims));
+    }
+
+    public BatchIntrospectionResponse introspectAll(List<String> tokens) {
+        if (tokens.size() > maxBatchSize) {
+            throw new AuthException("At most " + maxBatchSize + " tokens can be introspected per request");
+        }
+        return new BatchIntrospectionResponse(tokens.stream().map(this::introspect).toList());
+    }
+
+    private static List<String> roles(Claims claims) {
+        if (!(claims.get("roles") instanceof Collection<?> roles)) {
+            return null;
+        }
+        return roles.stream()
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .toList();
+    }
+}
@@ -1,6 +1,9 @@
 package com.uums.api.auth.mfa;
 
 import com.uums.api.auth.AuthException;
+import com.uums.api.auth.challenge.Challenge;
+import com.uums.api.auth.challenge.ChallengePurpose;
+import com.uums.api.auth.challenge.ChallengeStore;
 import com.uums.api.auth.dto.AuthResponse;
 import com.uums.api.auth.dto.mfa.MfaChallengeRequest;
 import com.uums.api.auth.dto.mfa.MfaChallengeResponse;
@@ -8,10 +11,6 @@ import com.uums.api.auth.dto.mfa.MfaVerifyRequest;
 import com.uums.api.domain.User;
 import com.uums.api.service.AuthService;
 import java.security.SecureRandom;
-import java.time.Instant;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -20,19 +19,23 @@ public class MfaService {
 
     private final AuthService authService;
     private final SecureRandom random = new SecureRandom();
-    private final Map<String, MfaChallenge> challenges = new ConcurrentHashMap<>();
+    private final ChallengeStore challengeStore;
     private final long challengeTtlSeconds;
 
-    public MfaService(AuthService authService, @Value("${uums.security.mfa.challenge-ttl-seconds:300}") long challengeTtlSeconds) {
+    public MfaService(
+            AuthService authService,
+            ChallengeStore challengeStore,
+            @Value("${uums.security.mfa.challenge-ttl-seconds:300}") long challengeTtlSeconds) {
         this.authService = authService;
+        this.challengeStore = challengeStore;
         this.challengeTtlSeconds = challengeTtlSeconds;
     }
 
     public MfaChallengeResponse initiateChallenge(MfaChallengeRequest request) {
         User user = authService.validatePrimaryCredentials(request.username(), request.password());
         String otp = String.format("%06d", random.nextInt(1_000_000));
-        String challengeId = UUID.randomUUID().toString();
-        challenges.put(challengeId, new MfaChallenge(user.getUsername(), otp, Instant.now().plusSeconds(challengeTtlSeconds)));
+        String challengeId = challengeStore.issue(
+                ChallengePurpose.MFA, user.getUsername(), otp, challengeTtlSeconds);
 
         return new MfaChallengeResponse(
                 challengeId,
@@ -43,15 +46,15 @@ public class MfaService {
     }
 
     public AuthResponse verifyChallenge(MfaVerifyRequest request) {
-        MfaChallenge challenge = challenges.get(request.challengeId());
-        if (challenge == null || Instant.now().isAfter(challenge.expiresAt())) {
-            throw new AuthException("MFA challenge expired or invalid");
-        }
-        if (!challenge.otp().equals(request.otp())) {
+        Challenge challenge = challengeStore.find(request.challengeId(), ChallengePurpose.MFA)
+                .orElseThrow(() -> new AuthException("MFA challenge expired or invalid"));
+        if (!challenge.otpMatches(request.otp())) {
             throw new AuthException("Invalid OTP");
         }
+        if (!challengeStore.remove(request.challengeId())) {
+            throw new AuthException("MFA challenge expired or invalid");
+        }
 
-        challenges.remove(request.challengeId());
         User user = authService.getActiveUserByUsername(challenge.username());
         return authService.issueTokens(user);
     }
@@ -63,7 +66,4 @@ public class MfaService {
         }
         return parts[0].charAt(0) + "***@" + parts[1];
     }
-
-    private record MfaChallenge(String username, String otp, Instant expiresAt) {
-    }
 }
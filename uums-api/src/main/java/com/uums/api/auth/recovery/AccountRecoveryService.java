@@ -1,6 +1,9 @@
 package com.uums.api.auth.recovery;
 
 import com.uums.api.auth.AuthException;
+import com.uums.api.auth.challenge.Challenge;
+import com.uums.api.auth.challenge.ChallengePurpose;
+import com.uums.api.auth.challenge.ChallengeStore;
 import com.uums.api.auth.dto.recovery.RecoveryChallengeRequest;
 import com.uums.api.auth.dto.recovery.RecoveryChallengeResponse;
 import com.uums.api.auth.dto.recovery.RecoveryResetRequest;
@@ -8,14 +11,11 @@ import com.uums.api.auth.dto.recovery.RecoverySetupRequest;
 import com.uums.api.domain.User;
 import com.uums.api.repository.UserRepository;
 import java.security.SecureRandom;
-import java.time.Instant;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class AccountRecoveryService {
@@ -23,28 +23,36 @@ public class AccountRecoveryService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final SecureRandom random = new SecureRandom();
-    private final Map<String, RecoveryChallenge> challenges = new ConcurrentHashMap<>();
+    private final ChallengeStore challengeStore;
     private final long challengeTtlSeconds;
+    private final TransactionTemplate transactionTemplate;
 
     public AccountRecoveryService(
             UserRepository userRepository,
             PasswordEncoder passwordEncoder,
-            @Value("${uums.security.recovery.challenge-ttl-seconds:300}") long challengeTtlSeconds) {
+            ChallengeStore challengeStore,
+            @Value("${uums.security.recovery.challenge-ttl-seconds:300}") long challengeTtlSeconds,
+            PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.challengeStore = challengeStore;
         this.challengeTtlSeconds = challengeTtlSeconds;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
+    // not transactional: the answer is hashed before the short update transaction opens
     public void setupSecurityQuestion(RecoverySetupRequest request) {
-        User user = userRepository.findByUsername(request.username())
-                .orElseThrow(() -> new AuthException("User not found"));
-        user.setSecurityQuestion(request.securityQuestion());
-        user.setSecurityAnswerHash(passwordEncoder.encode(request.securityAnswer()));
-        userRepository.save(user);
+        String answerHash = passwordEncoder.encode(request.securityAnswer());
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findByUsername(request.username())
+                    .orElseThrow(() -> new AuthException("User not found"));
+            user.setSecurityQuestion(request.securityQuestion());
+            user.setSecurityAnswerHash(answerHash);
+            userRepository.save(user);
+        });
     }
 
-    @Transactional(readOnly = true)
+    // not transactional: the answer is checked on the hashing executor without holding a connection
     public RecoveryChallengeResponse initiateRecovery(RecoveryChallengeRequest request) {
         User user = userRepository.findByUsername(request.username())
                 .orElseThrow(() -> new AuthException("User not found"));
@@ -58,8 +66,8 @@ public class AccountRecoveryService {
         }
 
         String otp = String.format("%06d", random.nextInt(1_000_000));
-        String challengeId = UUID.randomUUID().toString();
-        challenges.put(challengeId, new RecoveryChallenge(user.getUsername(), otp, Instant.now().plusSeconds(challengeTtlSeconds)));
+        String challengeId = challengeStore.issue(
+                ChallengePurpose.RECOVERY, user.getUsername(), otp, challengeTtlSeconds);
 
         return new RecoveryChallengeResponse(
                 challengeId,
@@ -70,22 +78,28 @@ public class AccountRecoveryService {
                 otp);
     }
 
-    @Transactional
+    /**
+     * Hashes the new password before consuming the challenge, so a busy hashing pool leaves the challenge
+     * usable for a retry, and before the short update transaction opens.
+     */
     public void resetPassword(RecoveryResetRequest request) {
-        RecoveryChallenge challenge = challenges.get(request.challengeId());
-        if (challenge == null || Instant.now().isAfter(challenge.expiresAt())) {
-            throw new AuthException("Recovery challenge expired or invalid");
-        }
-        if (!challenge.otp().equals(request.otp())) {
+        Challenge challenge = challengeStore.find(request.challengeId(), ChallengePurpose.RECOVERY)
+                .orElseThrow(() -> new AuthException("Recovery challenge expired or invalid"));
+        if (!challenge.otpMatches(request.otp())) {
             throw new AuthException("Invalid OTP");
         }
+        String passwordHash = passwordEncoder.encode(request.newPassword());
+        if (!challengeStore.remove(request.challengeId())) {
+            throw new AuthException("Recovery challenge expired or invalid");
+        }
 
-        User user = userRepository.findByUsername(challenge.username())
-                .orElseThrow(() -> new AuthException("User not found"));
-        user.setPasswordHash(passwordEncoder.encode(request.newPassword()));
-        user.setFailedLoginAttempts(0);
-        userRepository.save(user);
-        challenges.remove(request.challengeId());
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findByUsername(challenge.username())
+                    .orElseThrow(() -> new AuthException("User not found"));
+            user.setPasswordHash(passwordHash);
+            user.setFailedLoginAttempts(0);
+            userRepository.save(user);
+        });
     }
 
     private String maskEmail(String email) {
@@ -95,7 +109,4 @@ public class AccountRecoveryService {
         }
         return parts[0].charAt(0) + "***@" + parts[1];
     }
-
-    private record RecoveryChallenge(String username, String otp, Instant expiresAt) {
-    }
 }
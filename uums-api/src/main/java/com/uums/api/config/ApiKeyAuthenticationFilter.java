@@ -0,0 +1,58 @@
+package com.uums.api.config;
+
+import com.uums.api.config.rate.ServiceRateLimitFilter;
+import com.uums.api.tenant.ApiKeyResolver;
+import com.uums.api.tenant.ResolvedApiKey;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates app2app and token introspection requests by {@code X-API-Key}. A resolved key becomes a {@link ResolvedApiKey}
+ * principal with {@code ROLE_SERVICE}; a missing or unknown key is answered with 401 here.
+ */
+public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
+
+    static final String APP2APP_PATH_PREFIX = "/api/v1/app2app/";
+    static final String INTROSPECT_PATH = "/api/v1/auth/introspect";
+
+    private final ApiKeyResolver apiKeyResolver;
+
+    public ApiKeyAuthenticationFilter(ApiKeyResolver apiKeyResolver) {
+        this.apiKeyResolver = apiKeyResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.startsWith(APP2APP_PATH_PREFIX) && !path.startsWith(INTROSPECT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String apiKey = request.getHeader(ServiceRateLimitFilter.API_KEY_HEADER);
+        Optional<ResolvedApiKey> caller = apiKey == null ? Optional.empty() : apiKeyResolver.resolve(apiKey);
+        if (caller.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Invalid API key\"}");
+            return;
+        }
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(
+                caller.get(), null, List.of(new SimpleGrantedAuthority("ROLE_SERVICE"))));
+        SecurityContextHolder.setContext(context);
+        filterChain.doFilter(request, response);
+    }
+}
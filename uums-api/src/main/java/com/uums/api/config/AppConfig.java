@@ -1,27 +1,74 @@
 package com.uums.api.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.uums.api.security.BoundedPasswordEncoder;
+import com.uums.api.security.CachingJwtDecoder;
+import com.uums.api.security.JwtRoleAuthorities;
+import com.uums.api.security.SigningKeyRing;
+import com.uums.api.security.revocation.RevokedSessionValidator;
 import java.nio.charset.StandardCharsets;
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
+import java.util.List;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 
 @Configuration
 public class AppConfig {
 
+    /** Hashes on a pool sized to the cores rather than on request threads; {@code threads: 0} means one per core. */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    BoundedPasswordEncoder passwordEncoder(
+            @Value("${uums.security.password-hashing.threads:0}") int threads,
+            @Value("${uums.security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${uums.security.password-hashing.max-wait-ms:2000}") long maxWaitMs) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+                PasswordEncoderFactories.createDelegatingPasswordEncoder(), poolSize, queueCapacity, maxWaitMs);
     }
 
+    /**
+     * Verifies ES256 tokens against the signing key ring and, while legacy HMAC tokens are accepted,
+     * kid-less HS256 tokens against the shared secret. Verified tokens are cached until they expire;
+     * the revoked-session check runs on every request either way.
+     */
     @Bean
-    JwtDecoder jwtDecoder(@Value("${uums.security.jwt.secret}") String secret) {
-        SecretKey key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-        return NimbusJwtDecoder.withSecretKey(key).build();
+    CachingJwtDecoder jwtDecoder(
+            SigningKeyRing keyRing,
+            JwtRoleAuthorities roleAuthorities,
+            RevokedSessionValidator revokedSessionValidator,
+            @Value("${uums.security.jwt.secret}") String secret,
+            @Value("${uums.security.jwt.accept-legacy-hmac:false}") boolean acceptLegacyHmac,
+            @Value("${uums.security.jwt.decoder-cache.max-entries:10000}") int cacheMaxEntries) {
+        JWKSet legacyKeys = acceptLegacyHmac
+                ? new JWKSet(new OctetSequenceKey.Builder(secret.getBytes(StandardCharsets.UTF_8)).build())
+                : new JWKSet();
+        JWKSource<SecurityContext> keySource = (selector, context) -> {
+            List<JWK> matches = keyRing.select(selector);
+            return matches.isEmpty() ? selector.select(legacyKeys) : matches;
+        };
+        Set<JWSAlgorithm> algorithms = acceptLegacyHmac
+                ? Set.of(JWSAlgorithm.ES256, JWSAlgorithm.HS256, JWSAlgorithm.HS384, JWSAlgorithm.HS512)
+                : Set.of(JWSAlgorithm.ES256);
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, keySource));
+        // claims are validated by NimbusJwtDecoder's own validators
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(
+                new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), revokedSessionValidator));
+        return new CachingJwtDecoder(decoder, roleAuthorities, revokedSessionValidator, cacheMaxEntries);
     }
 }
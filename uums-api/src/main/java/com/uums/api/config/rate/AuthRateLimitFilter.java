@@ -0,0 +1,131 @@
+package com.uums.api.config.rate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uums.api.metrics.MetricsSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Throttles every credential endpoint under {@code /api/v1/auth/} twice: per client address, and per
+ * subject named in the body (the username, or the challenge id an OTP is checked against), so neither
+ * spraying one account from many addresses nor many accounts from one address gets through.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AuthRateLimitFilter extends OncePerRequestFilter implements MetricsSource {
+
+    static final String AUTH_PATH_PREFIX = "/api/v1/auth/";
+    static final String INTROSPECT_PATH = "/api/v1/auth/introspect";
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final ClusterRateLimiter clusterRateLimiter;
+    private final SlidingWindowRateLimiter addressLimiter;
+    private final SlidingWindowRateLimiter subjectLimiter;
+    private final int maxRequests;
+    private final long windowSeconds;
+    private final LongAdder addressRejections = new LongAdder();
+    private final LongAdder subjectRejections = new LongAdder();
+
+    public AuthRateLimitFilter(
+            ObjectMapper objectMapper,
+            ClusterRateLimiter clusterRateLimiter,
+            @Value("${uums.security.rate-limit.max-requests:30}") int maxRequests,
+            @Value("${uums.security.rate-limit.subject-max-requests:10}") int subjectMaxRequests,
+            @Value("${uums.security.rate-limit.window-seconds:60}") long windowSeconds,
+            @Value("${uums.security.rate-limit.max-keys:100000}") int maxKeys) {
+        this.objectMapper = objectMapper;
+        this.clusterRateLimiter = clusterRateLimiter;
+        this.maxRequests = maxRequests;
+        this.windowSeconds = windowSeconds;
+        long windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        this.addressLimiter = new SlidingWindowRateLimiter(maxRequests, windowMillis, maxKeys);
+        this.subjectLimiter = new SlidingWindowRateLimiter(subjectMaxRequests, windowMillis, maxKeys);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        // introspection is called by API-key authenticated gateways and limited per service instead
+        return !"POST".equals(request.getMethod())
+                || !path.startsWith(AUTH_PATH_PREFIX)
+                || path.startsWith(INTROSPECT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        String address = request.getRemoteAddr();
+        long seen = addressLimiter.acquire(address, now);
+        // an address's first request stays local, so scanning many addresses never reaches the shared store
+        if (seen == 0
+                || seen > 1 && !clusterRateLimiter.tryAcquire("auth-ip:" + address, maxRequests, windowSeconds)) {
+            addressRejections.increment();
+            reject(response);
+            return;
+        }
+
+        CachedBodyHttpServletRequest cached = new CachedBodyHttpServletRequest(request, MAX_BODY_BYTES);
+        if (cached.isTruncated(MAX_BODY_BYTES)) {
+            response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        String subject = subjectOf(cached.getBody());
+        if (subject != null && !subjectLimiter.tryAcquire(subject, now)) {
+            subjectRejections.increment();
+            reject(response);
+            return;
+        }
+
+        filterChain.doFilter(cached, response);
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return Map.of(
+                "rate.auth.tracked-addresses", addressLimiter.size(),
+                "rate.auth.tracked-subjects", subjectLimiter.size(),
+                "rate.auth.address-rejections", addressRejections.sum(),
+                "rate.auth.subject-rejections", subjectRejections.sum());
+    }
+
+    private String subjectOf(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            if (json.hasNonNull("username")) {
+                return "user:" + json.get("username").asText().toLowerCase(Locale.ROOT);
+            }
+            if (json.hasNonNull("challengeId")) {
+                return "challenge:" + json.get("challengeId").asText();
+            }
+        } catch (IOException ex) {
+            // malformed bodies are rejected by the endpoint itself
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(windowSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too many authentication attempts\"}");
+    }
+}
@@ -0,0 +1,210 @@
+package com.uums.api.config.rate;
+
+import com.uums.api.metrics.MetricsSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fixed-window limit shared by all replicas. Each node leases a chunk of the window's tokens from
+ * {@link RateLimitLeaseStore} and admits requests from it locally, so the store sees one write per
+ * chunk rather than one per request. Chunks are at least {@code min-chunk} tokens, and a background
+ * refill starts once half of a lease is used, so only the first lease of a window is taken on the request
+ * thread. Tokens still leased when the window ends are forfeited, so the cluster may admit slightly less
+ * than the limit but never more. If the store is unreachable the node falls back to the full limit
+ * locally. At most {@code max-keys} keys are tracked; beyond that, new keys are left to the local limiters
+ * until the next purge.
+ */
+@Component
+public class ClusterRateLimiter implements MetricsSource, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterRateLimiter.class);
+    private static final long STORE_RETENTION_MS = TimeUnit.DAYS.toMillis(1);
+
+    private final RateLimitLeaseStore store;
+    private final boolean enabled;
+    private final double leaseFraction;
+    private final long minChunk;
+    private final int maxKeys;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final ExecutorService refiller;
+    private final LongAdder leaseRequests = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder storeFailures = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+
+    public ClusterRateLimiter(
+            RateLimitLeaseStore store,
+            @Value("${uums.security.distributed-rate-limit.enabled:false}") boolean enabled,
+            @Value("${uums.security.distributed-rate-limit.lease-fraction:0.1}") double leaseFraction,
+            @Value("${uums.security.distributed-rate-limit.min-chunk:10}") long minChunk,
+            @Value("${uums.security.distributed-rate-limit.max-keys:10000}") int maxKeys) {
+        this.store = store;
+        this.enabled = enabled;
+        this.leaseFraction = leaseFraction;
+        this.minChunk = minChunk;
+        this.maxKeys = maxKeys;
+        this.refiller = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean tryAcquire(String key, int limit, long windowSeconds) {
+        if (!enabled) {
+            return true;
+        }
+        long windowMs = TimeUnit.SECONDS.toMillis(windowSeconds);
+        long nowMs = System.currentTimeMillis();
+        long windowStartMs = nowMs - nowMs % windowMs;
+        long chunk = Math.min(limit, Math.max(minChunk, (long) Math.ceil(limit * leaseFraction)));
+        Lease lease = leases.get(key);
+        if (lease == null) {
+            if (leases.size() >= maxKeys) {
+                untracked.increment();
+                return true;
+            }
+            lease = leases.computeIfAbsent(key, ignored -> new Lease(windowMs));
+        }
+        if (lease.take(windowStartMs)) {
+            prefetchIfLow(key, lease, windowStartMs, chunk, limit);
+            return true;
+        }
+        synchronized (lease) {
+            if (!lease.take(windowStartMs)) {
+                refill(key, lease, windowStartMs, chunk, limit);
+                if (!lease.take(windowStartMs)) {
+                    rejected.increment();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Seconds until the current window of {@code windowSeconds} ends. */
+    public long secondsUntilReset(long windowSeconds) {
+        long windowMs = TimeUnit.SECONDS.toMillis(windowSeconds);
+        long remainingMs = windowMs - System.currentTimeMillis() % windowMs;
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remainingMs + 999));
+    }
+
+    @Scheduled(fixedDelayString = "${uums.security.distributed-rate-limit.purge-interval-ms:60000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        long nowMs = System.currentTimeMillis();
+        leases.values().removeIf(lease ->
+                lease.windowStartMs != Long.MIN_VALUE && lease.windowStartMs + lease.windowMs <= nowMs);
+        try {
+            store.purgeBefore(nowMs - STORE_RETENTION_MS);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to purge expired rate limit leases", ex);
+        }
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return Map.of(
+                "rate.cluster.leases", leases.size(),
+                "rate.cluster.lease-requests", leaseRequests.sum(),
+                "rate.cluster.rejected", rejected.sum(),
+                "rate.cluster.store-failures", storeFailures.sum(),
+                "rate.cluster.untracked", untracked.sum());
+    }
+
+    @Override
+    public void destroy() {
+        refiller.shutdownNow();
+    }
+
+    private void prefetchIfLow(String key, Lease lease, long windowStartMs, long chunk, long limit) {
+        if (lease.tokens.get() > Math.max(1, chunk / 2)
+                || lease.exhausted
+                || !lease.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refiller.execute(() -> {
+                try {
+                    refill(key, lease, windowStartMs, chunk, limit);
+                } finally {
+                    lease.refilling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            lease.refilling.set(false);
+        }
+    }
+
+    private void refill(String key, Lease lease, long windowStartMs, long chunk, long limit) {
+        if (lease.windowStartMs == windowStartMs && lease.exhausted) {
+            return;
+        }
+        long granted;
+        try {
+            leaseRequests.increment();
+            granted = store.lease(key, windowStartMs, chunk, limit);
+        } catch (RuntimeException ex) {
+            storeFailures.increment();
+            log.warn("Rate limit lease store unavailable, enforcing {} locally", key, ex);
+            lease.reset(windowStartMs, limit, true);
+            return;
+        }
+        synchronized (lease) {
+            if (lease.windowStartMs == windowStartMs) {
+                lease.tokens.addAndGet(granted);
+                lease.exhausted = granted < chunk;
+            } else if (lease.windowStartMs < windowStartMs) {
+                lease.reset(windowStartMs, granted, granted < chunk);
+            }
+        }
+    }
+
+    private static final class Lease {
+
+        private final long windowMs;
+        private final AtomicLong tokens = new AtomicLong();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile long windowStartMs = Long.MIN_VALUE;
+        private volatile boolean exhausted;
+
+        private Lease(long windowMs) {
+            this.windowMs = windowMs;
+        }
+
+        private boolean take(long currentWindowStartMs) {
+            if (windowStartMs != currentWindowStartMs) {
+                return false;
+            }
+            long available;
+            do {
+                available = tokens.get();
+                if (available <= 0) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(available, available - 1));
+            return true;
+        }
+
+        private synchronized void reset(long newWindowStartMs, long granted, boolean exhausted) {
+            windowStartMs = newWindowStartMs;
+            tokens.set(granted);
+            this.exhausted = exhausted;
+        }
+    }
+}
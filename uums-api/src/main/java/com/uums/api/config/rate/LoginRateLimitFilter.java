@@ -1,70 +0,0 @@
-package com.uums.api.config.rate;
-
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.time.Instant;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.Ordered;
-import org.springframework.core.annotation.Order;
-import org.springframework.stereotype.Component;
-import org.springframework.web.filter.OncePerRequestFilter;
-
-@Component
-@Order(Ordered.HIGHEST_PRECEDENCE)
-public class LoginRateLimitFilter extends OncePerRequestFilter {
-
-    private final Map<String, WindowCounter> counters = new ConcurrentHashMap<>();
-    private final int maxRequests;
-    private final long windowSeconds;
-
-    public LoginRateLimitFilter(
-            @Value("${uums.security.rate-limit.max-requests:30}") int maxRequests,
-            @Value("${uums.security.rate-limit.window-seconds:60}") long windowSeconds) {
-        this.maxRequests = maxRequests;
-        this.windowSeconds = windowSeconds;
-    }
-
-    @Override
-    protected boolean shouldNotFilter(HttpServletRequest request) {
-        return !"/api/v1/auth/login".equals(request.getRequestURI());
-    }
-
-    @Override
-    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
-            throws ServletException, IOException {
-        String key = request.getRemoteAddr();
-        long now = Instant.now().getEpochSecond();
-        WindowCounter counter = counters.computeIfAbsent(key, k -> new WindowCounter(now, 0));
-
-        synchronized (counter) {
-            if (now - counter.windowStart >= windowSeconds) {
-                counter.windowStart = now;
-                counter.count = 0;
-            }
-            counter.count++;
-            if (counter.count > maxRequests) {
-                response.setStatus(429);
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\":\"Too many login attempts\"}");
-                return;
-            }
-        }
-
-        filterChain.doFilter(request, response);
-    }
-
-    private static class WindowCounter {
-        private long windowStart;
-        private int count;
-
-        WindowCounter(long windowStart, int count) {
-            this.windowStart = windowStart;
-            this.count = count;
-        }
-    }
-}
@@ -0,0 +1,94 @@
+package com.uums.api.config.rate;
+
+import com.uums.api.config.DatabaseDialect;
+import java.util.List;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Shared token ledger for {@link ClusterRateLimiter}: one row per limiter key holding the tokens handed
+ * out in the current window. Each lease is a single atomic increment, {@code INSERT ... ON CONFLICT ...
+ * RETURNING} on PostgreSQL and an update-or-insert plus read-back in one transaction on H2.
+ */
+@Component
+public class RateLimitLeaseStore {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO rate_limit_lease AS l (bucket_key, window_start_ms, tokens_granted, updated_at)
+            VALUES (?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT (bucket_key) DO UPDATE SET
+                tokens_granted = CASE WHEN l.window_start_ms = EXCLUDED.window_start_ms
+                    THEN l.tokens_granted + EXCLUDED.tokens_granted ELSE EXCLUDED.tokens_granted END,
+                window_start_ms = EXCLUDED.window_start_ms,
+                updated_at = EXCLUDED.updated_at
+            WHERE l.window_start_ms <= EXCLUDED.window_start_ms
+            RETURNING tokens_granted
+            """;
+
+    private static final String H2_UPDATE = """
+            UPDATE rate_limit_lease SET
+                tokens_granted = CASE WHEN window_start_ms = ? THEN tokens_granted + ? ELSE ? END,
+                window_start_ms = ?,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE bucket_key = ? AND window_start_ms <= ?
+            """;
+
+    private static final String H2_INSERT = """
+            INSERT INTO rate_limit_lease (bucket_key, window_start_ms, tokens_granted, updated_at)
+            VALUES (?, ?, ?, CURRENT_TIMESTAMP)
+            """;
+
+    private static final String H2_SELECT =
+            "SELECT tokens_granted FROM rate_limit_lease WHERE bucket_key = ? AND window_start_ms = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseDialect databaseDialect;
+
+    public RateLimitLeaseStore(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DatabaseDialect databaseDialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.databaseDialect = databaseDialect;
+    }
+
+    /**
+     * Takes up to {@code chunk} tokens of {@code limit} for the window and returns how many were granted;
+     * 0 once the window is used up, or when another node has already moved the key to a later window.
+     */
+    public long lease(String key, long windowStartMs, long chunk, long limit) {
+        List<Long> totals = databaseDialect.isPostgres()
+                ? jdbcTemplate.queryForList(POSTGRES_UPSERT, Long.class, key, windowStartMs, chunk)
+                : transactionTemplate.execute(status -> leaseH2(key, windowStartMs, chunk));
+        if (totals == null || totals.isEmpty()) {
+            return 0;
+        }
+        long before = totals.getFirst() - chunk;
+        return Math.clamp(limit - before, 0, chunk);
+    }
+
+    public int purgeBefore(long windowStartMs) {
+        return jdbcTemplate.update("DELETE FROM rate_limit_lease WHERE window_start_ms < ?", windowStartMs);
+    }
+
+    private List<Long> leaseH2(String key, long windowStartMs, long chunk) {
+        if (updateH2(key, windowStartMs, chunk) == 0) {
+            try {
+                jdbcTemplate.update(H2_INSERT, key, windowStartMs, chunk);
+            } catch (DataIntegrityViolationException ex) {
+                // lost the insert race, or the row sits in a later window
+                updateH2(key, windowStartMs, chunk);
+            }
+        }
+        return jdbcTemplate.queryForList(H2_SELECT, Long.class, key, windowStartMs);
+    }
+
+    private int updateH2(String key, long windowStartMs, long chunk) {
+        return jdbcTemplate.update(H2_UPDATE, windowStartMs, chunk, chunk, windowStartMs, key, windowStartMs);
+    }
+}
@@ -0,0 +1,88 @@
+package com.uums.api.config.rate;
+
+import com.uums.api.tenant.ApiKeyResolver;
+import com.uums.api.tenant.ResolvedApiKey;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Enforces {@code requestLimitPerMinute} of the service owning the {@code X-API-Key} and reports the
+ * budget with the {@code RateLimit-*} headers. The local GCRA shapes bursts on this node; the cluster
+ * limiter, when enabled, caps the minute across replicas. Requests with an unknown key are passed on so the
+ * authentication filter can reject them.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ServiceRateLimitFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private final ApiKeyResolver apiKeyResolver;
+    private final ServiceRateLimiter rateLimiter;
+    private final ClusterRateLimiter clusterRateLimiter;
+
+    public ServiceRateLimitFilter(
+            ApiKeyResolver apiKeyResolver,
+            ServiceRateLimiter rateLimiter,
+            ClusterRateLimiter clusterRateLimiter) {
+        this.apiKeyResolver = apiKeyResolver;
+        this.rateLimiter = rateLimiter;
+        this.clusterRateLimiter = clusterRateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(API_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Optional<ResolvedApiKey> caller = apiKeyResolver.resolve(request.getHeader(API_KEY_HEADER));
+        if (caller.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Long serviceId = caller.get().serviceId();
+        int limit = caller.get().requestLimitPerMinute();
+        long now = rateLimiter.now();
+        long waitNanos = rateLimiter.acquire(serviceId, limit, now);
+
+        response.setHeader("RateLimit-Limit", String.valueOf(limit));
+        response.setHeader("RateLimit-Policy", limit + ";w=60");
+        long retryAfterSeconds = toSeconds(waitNanos);
+        if (waitNanos == 0 && !clusterRateLimiter.tryAcquire("service:" + serviceId, limit, 60)) {
+            // the cluster has spent the minute: hand the local slot back and report its budget, not ours
+            rateLimiter.refund(serviceId, limit);
+            retryAfterSeconds = Math.max(1, clusterRateLimiter.secondsUntilReset(60));
+            response.setHeader("RateLimit-Remaining", "0");
+            response.setHeader("RateLimit-Reset", String.valueOf(retryAfterSeconds));
+        } else {
+            response.setHeader("RateLimit-Remaining", String.valueOf(rateLimiter.remaining(serviceId, limit, now)));
+            response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(rateLimiter.resetNanos(serviceId, now))));
+        }
+        if (retryAfterSeconds > 0) {
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Request limit per minute exceeded\"}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
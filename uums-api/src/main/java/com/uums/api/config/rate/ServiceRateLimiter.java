@@ -0,0 +1,90 @@
+package com.uums.api.config.rate;
+
+import com.uums.api.metrics.MetricsSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generic cell rate algorithm per service: the only state is the theoretical arrival time (TAT) of the
+ * next request, one {@link AtomicLong} per service advanced by CAS. A limit of N per minute admits a
+ * burst of N and then one request every 60s/N. Checks take no locks and allocate nothing once the
+ * service's cell exists.
+ */
+@Component
+public class ServiceRateLimiter implements MetricsSource {
+
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final long origin = System.nanoTime();
+    private final Map<Long, AtomicLong> cells = new ConcurrentHashMap<>();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /** Monotonic clock reading for the methods below; never negative. */
+    public long now() {
+        return System.nanoTime() - origin;
+    }
+
+    /**
+     * Returns 0 when the request is admitted, otherwise the nanoseconds until it would be.
+     */
+    public long acquire(Long serviceId, int limitPerMinute, long nowNanos) {
+        AtomicLong cell = cell(serviceId);
+        int limit = Math.max(1, limitPerMinute);
+        long interval = WINDOW_NANOS / limit;
+        long capacity = interval * limit;
+        while (true) {
+            long tat = cell.get();
+            long next = Math.max(tat, nowNanos) + interval;
+            long overflow = next - nowNanos - capacity;
+            if (overflow > 0) {
+                rejected.increment();
+                return overflow;
+            }
+            if (cell.compareAndSet(tat, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot taken by {@link #acquire} for a request that was then turned away elsewhere, such
+     * as by the cluster limiter.
+     */
+    public void refund(Long serviceId, int limitPerMinute) {
+        long interval = WINDOW_NANOS / Math.max(1, limitPerMinute);
+        cell(serviceId).addAndGet(-interval);
+        allowed.decrement();
+    }
+
+    /** Requests that would still be admitted right now. */
+    public long remaining(Long serviceId, int limitPerMinute, long nowNanos) {
+        int limit = Math.max(1, limitPerMinute);
+        long interval = WINDOW_NANOS / limit;
+        long backlog = Math.max(0, cell(serviceId).get() - nowNanos);
+        return Math.max(0, (interval * limit - backlog) / interval);
+    }
+
+    /** Nanoseconds until the full burst is available again. */
+    public long resetNanos(Long serviceId, long nowNanos) {
+        return Math.max(0, cell(serviceId).get() - nowNanos);
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return Map.of(
+                "rate.service.allowed", allowed.sum(),
+                "rate.service.rejected", rejected.sum(),
+                "rate.service.tracked", cells.size());
+    }
+
+    private AtomicLong cell(Long serviceId) {
+        AtomicLong cell = cells.get(serviceId);
+        return cell != null ? cell : cells.computeIfAbsent(serviceId, id -> new AtomicLong());
+    }
+}
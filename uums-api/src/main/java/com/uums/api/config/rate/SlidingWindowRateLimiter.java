@@ -0,0 +1,157 @@
+package com.uums.api.config.rate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding-window-counter limiter: a key is admitted while {@code previous * (1 - elapsed) + current}
+ * stays under the limit, which removes the 2x burst a fixed window allows at its edges. Each key's
+ * state (window index, previous and current count) is packed into one {@link AtomicLong} and updated by
+ * CAS, and keys are looked up in a {@link ConcurrentHashMap}, so a check never takes a lock. When a new
+ * key would exceed {@code maxKeys}, one caller sweeps the map: keys idle for more than a window go first,
+ * then the least recently used keys until it is back to seven eighths of the bound. A key that is still
+ * over its limit is never evicted, so flooding the limiter with fresh keys cannot reset a limited one;
+ * if only such keys remain, new keys are refused until some of them cool down.
+ */
+public class SlidingWindowRateLimiter {
+
+    private static final long MAX_COUNT = 0xFFFF;
+
+    private final int limit;
+    private final long windowMillis;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, Entry> states = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile long nextSweepMillis;
+
+    public SlidingWindowRateLimiter(int limit, long windowMillis, int maxKeys) {
+        this.limit = (int) Math.min(limit, MAX_COUNT);
+        this.windowMillis = windowMillis;
+        this.maxKeys = Math.max(1, maxKeys);
+    }
+
+    public boolean tryAcquire(String key, long nowMillis) {
+        return acquire(key, nowMillis) > 0;
+    }
+
+    /**
+     * Like {@link #tryAcquire}, but returns how many requests from the key the previous and current window
+     * have seen, including this one, or 0 if it was rejected.
+     */
+    public long acquire(String key, long nowMillis) {
+        Entry entry = entry(key, nowMillis);
+        if (entry == null) {
+            return 0;
+        }
+        if (entry.lastAccessMillis != nowMillis) {
+            entry.lastAccessMillis = nowMillis;
+        }
+        long window = nowMillis / windowMillis;
+        double previousWeight = previousWeight(nowMillis);
+        while (true) {
+            long current = entry.state.get();
+            long stateWindow = current >>> 32;
+            long previousCount = (current >>> 16) & MAX_COUNT;
+            long currentCount = current & MAX_COUNT;
+            if (stateWindow != (window & 0xFFFFFFFFL)) {
+                previousCount = stateWindow == ((window - 1) & 0xFFFFFFFFL) ? currentCount : 0;
+                currentCount = 0;
+            }
+            if (previousCount * previousWeight + currentCount >= limit) {
+                return 0;
+            }
+            long next = (window << 32) | (previousCount << 16) | (currentCount + 1);
+            if (entry.state.compareAndSet(current, next)) {
+                return previousCount + currentCount + 1;
+            }
+        }
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    private Entry entry(String key, long nowMillis) {
+        Entry entry = states.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        if (states.size() >= maxKeys) {
+            // while another caller sweeps, allow the slack the sweep is about to free
+            int bound = sweep(nowMillis) ? maxKeys : maxKeys + Math.max(1, maxKeys / 8);
+            if (states.size() >= bound) {
+                return null;
+            }
+        }
+        return states.computeIfAbsent(key, ignored -> new Entry());
+    }
+
+    private boolean sweep(long nowMillis) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            if (nowMillis < nextSweepMillis) {
+                return true;
+            }
+            long window = nowMillis / windowMillis;
+            double previousWeight = previousWeight(nowMillis);
+            long previousWindow = (window - 1) & 0xFFFFFFFFL;
+            long currentWindow = window & 0xFFFFFFFFL;
+            states.values().removeIf(entry -> {
+                long stateWindow = entry.state.get() >>> 32;
+                return stateWindow != currentWindow && stateWindow != previousWindow;
+            });
+            int target = maxKeys - Math.max(1, maxKeys / 8);
+            if (states.size() > target) {
+                List<Candidate> candidates = new ArrayList<>();
+                for (Map.Entry<String, Entry> tracked : states.entrySet()) {
+                    Entry entry = tracked.getValue();
+                    if (!limited(entry.state.get(), window, previousWeight)) {
+                        candidates.add(new Candidate(tracked.getKey(), entry, entry.lastAccessMillis));
+                    }
+                }
+                candidates.sort(Comparator.comparingLong(Candidate::lastAccessMillis));
+                for (int i = 0; i < candidates.size() && states.size() > target; i++) {
+                    Candidate candidate = candidates.get(i);
+                    if (!limited(candidate.entry().state.get(), window, previousWeight)) {
+                        states.remove(candidate.key(), candidate.entry());
+                    }
+                }
+            }
+            // a map full of limited keys would otherwise be rescanned for every new key
+            nextSweepMillis = states.size() >= maxKeys ? nowMillis + Math.max(1, windowMillis / 64) : 0;
+            return true;
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private boolean limited(long state, long window, double previousWeight) {
+        long stateWindow = state >>> 32;
+        long previousCount = (state >>> 16) & MAX_COUNT;
+        long currentCount = state & MAX_COUNT;
+        if (stateWindow != (window & 0xFFFFFFFFL)) {
+            previousCount = stateWindow == ((window - 1) & 0xFFFFFFFFL) ? currentCount : 0;
+            currentCount = 0;
+        }
+        return previousCount * previousWeight + currentCount >= limit;
+    }
+
+    private double previousWeight(long nowMillis) {
+        return 1.0 - (double) (nowMillis % windowMillis) / windowMillis;
+    }
+
+    private static final class Entry {
+        private final AtomicLong state = new AtomicLong();
+        private volatile long lastAccessMillis;
+    }
+
+    private record Candidate(String key, Entry entry, long lastAccessMillis) {
+    }
+}
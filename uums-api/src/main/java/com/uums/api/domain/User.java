@@ -13,6 +13,7 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -22,7 +23,8 @@ import java.util.Set;
 @Table(name = "uums_user")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "uums_user_seq")
+    @SequenceGenerator(name = "uums_user_seq", sequenceName = "uums_user_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 120)
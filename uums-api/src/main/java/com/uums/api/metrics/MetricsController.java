@@ -0,0 +1,28 @@
+package com.uums.api.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/metrics")
+@PreAuthorize("hasRole('ADMIN')")
+public class MetricsController {
+
+    private final List<MetricsSource> sources;
+
+    public MetricsController(List<MetricsSource> sources) {
+        this.sources = sources;
+    }
+
+    @GetMapping
+    public Map<String, Number> metrics() {
+        Map<String, Number> metrics = new TreeMap<>();
+        sources.forEach(source -> metrics.putAll(source.metrics()));
+        return metrics;
+    }
+}
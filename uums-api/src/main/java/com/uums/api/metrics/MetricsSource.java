@@ -0,0 +1,12 @@
+package com.uums.api.metrics;
+
+import java.util.Map;
+
+/**
+ * A component that publishes point-in-time counters and gauges on {@code GET /api/v1/admin/metrics}.
+ * Keys should be dotted and prefixed with the owning area, e.g. {@code traffic.window.hits}.
+ */
+public interface MetricsSource {
+
+    Map<String, Number> metrics();
+}
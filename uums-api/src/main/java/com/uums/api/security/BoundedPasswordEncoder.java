@@ -0,0 +1,126 @@
+package com.uums.api.security;
+
+import com.uums.api.metrics.MetricsSource;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs every encode and match of the wrapped encoder on a fixed pool sized to the cores, behind a short
+ * queue. A login storm then saturates at most that many CPUs instead of every request thread, and once
+ * the queue is full, or a hash has not finished within {@code maxWaitMs}, callers get a fast 503 rather
+ * than piling up behind it. A timed-out hash is cancelled if it has not started yet.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, MetricsSource, DisposableBean {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitNanos;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long maxWaitMs) {
+        this.delegate = delegate;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        long count = completed.sum();
+        return Map.of(
+                "security.password-hash.completed", count,
+                "security.password-hash.rejected", rejected.sum(),
+                "security.password-hash.timed-out", timedOut.sum(),
+                "security.password-hash.queue-depth", executor.getQueue().size(),
+                "security.password-hash.active", executor.getActiveCount(),
+                "security.password-hash.queue-ms-avg", count == 0 ? 0.0 : queueNanos.sum() / 1e6 / count,
+                "security.password-hash.queue-ms-max", maxQueueNanos.get() / 1e6,
+                "security.password-hash.hash-ms-avg", count == 0 ? 0.0 : hashNanos.sum() / 1e6 / count);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> hash) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return hash.call();
+                } finally {
+                    long finishedAt = System.nanoTime();
+                    queueNanos.add(startedAt - submittedAt);
+                    maxQueueNanos.accumulate(startedAt - submittedAt);
+                    hashNanos.add(finishedAt - startedAt);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new PasswordHashingSaturatedException("Password hashing is saturated, retry shortly",
+                    RETRY_AFTER_SECONDS);
+        }
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(false);
+            timedOut.increment();
+            throw new PasswordHashingSaturatedException("Password hashing is saturated, retry shortly",
+                    RETRY_AFTER_SECONDS);
+        } catch (InterruptedException ex) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+}
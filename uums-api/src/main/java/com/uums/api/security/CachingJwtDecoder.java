@@ -0,0 +1,116 @@
+package com.uums.api.security;
+
+import com.uums.api.metrics.MetricsSource;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+/**
+ * Remembers tokens that already passed verification until their {@code exp}. A client reusing its access
+ * token then costs a lock-free map lookup instead of a signature check and claims parse; the token string
+ * is the key, which the cached {@link Jwt} holds anyway. The role authorities are resolved once on the
+ * miss and kept next to the token for {@link #authoritiesOf(Jwt)}. Tokens without an expiry and tokens
+ * that fail verification are never cached. When the cache is full, one caller sweeps out expired tokens
+ * and then arbitrary ones down to seven eighths of the bound. {@code hitValidator} still runs on every
+ * hit, for checks whose outcome can change before the token expires.
+ */
+public class CachingJwtDecoder implements JwtDecoder, MetricsSource {
+
+    private final JwtDecoder delegate;
+    private final JwtRoleAuthorities roleAuthorities;
+    private final OAuth2TokenValidator<Jwt> hitValidator;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingJwtDecoder(
+            JwtDecoder delegate,
+            JwtRoleAuthorities roleAuthorities,
+            OAuth2TokenValidator<Jwt> hitValidator,
+            int maxEntries) {
+        this.delegate = delegate;
+        this.roleAuthorities = roleAuthorities;
+        this.hitValidator = hitValidator;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long nowMs = System.currentTimeMillis();
+        Entry cached = cache.get(token);
+        if (cached != null) {
+            if (nowMs < cached.jwt().getExpiresAt().toEpochMilli()) {
+                hits.increment();
+                OAuth2TokenValidatorResult result = hitValidator.validate(cached.jwt());
+                if (result.hasErrors()) {
+                    throw new JwtValidationException(
+                            result.getErrors().iterator().next().getDescription(), result.getErrors());
+                }
+                return cached.jwt();
+            }
+            cache.remove(token, cached);
+        }
+        misses.increment();
+        Jwt jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() != null && nowMs < jwt.getExpiresAt().toEpochMilli()) {
+            Entry entry = new Entry(jwt, roleAuthorities.of(jwt));
+            if (cache.size() >= maxEntries) {
+                sweep(nowMs);
+            }
+            cache.put(token, entry);
+        }
+        return jwt;
+    }
+
+    /**
+     * The role authorities of a token this decoder returned: the list cached with it, or resolved again
+     * when the token was not cached or has since been swept out.
+     */
+    public List<GrantedAuthority> authoritiesOf(Jwt jwt) {
+        Entry entry = cache.get(jwt.getTokenValue());
+        return entry != null && entry.jwt() == jwt ? entry.authorities() : roleAuthorities.of(jwt);
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return Map.of(
+                "security.jwt-cache.size", cache.size(),
+                "security.jwt-cache.hits", hitCount,
+                "security.jwt-cache.misses", total - hitCount,
+                "security.jwt-cache.hit-rate", total == 0 ? 0.0 : (double) hitCount / total);
+    }
+
+    private void sweep(long nowMs) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            cache.values().removeIf(entry -> nowMs >= entry.jwt().getExpiresAt().toEpochMilli());
+            int target = maxEntries - Math.max(1, maxEntries / 8);
+            Iterator<Entry> iterator = cache.values().iterator();
+            while (cache.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private record Entry(Jwt jwt, List<GrantedAuthority> authorities) {
+    }
+}
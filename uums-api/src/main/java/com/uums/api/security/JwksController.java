@@ -0,0 +1,30 @@
+package com.uums.api.security;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class JwksController {
+
+    private final SigningKeyRing keyRing;
+    private final long maxAgeSeconds;
+
+    public JwksController(
+            SigningKeyRing keyRing,
+            @Value("${uums.security.jwt.jwks-max-age-seconds:300}") long maxAgeSeconds) {
+        this.keyRing = keyRing;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .body(keyRing.publicJwks().toJSONObject(true));
+    }
+}
@@ -0,0 +1,46 @@
+package com.uums.api.security;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps the {@code roles} claim to authorities. Tokens carry one of a handful of role sets, so the
+ * authority list for each set is built once and shared by every request presenting it.
+ */
+@Component
+public class JwtRoleAuthorities {
+
+    private static final int MAX_ROLE_SETS = 1024;
+
+    private final Map<List<String>, List<GrantedAuthority>> interned = new ConcurrentHashMap<>();
+
+    public List<GrantedAuthority> of(Jwt jwt) {
+        Object rolesClaim = jwt.getClaims().get("roles");
+        if (!(rolesClaim instanceof Collection<?> roles)) {
+            return List.of();
+        }
+        List<String> names = roles.stream()
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .toList();
+        List<GrantedAuthority> authorities = interned.get(names);
+        if (authorities != null) {
+            return authorities;
+        }
+        List<GrantedAuthority> built = names.stream()
+                .map(SimpleGrantedAuthority::new)
+                .map(GrantedAuthority.class::cast)
+                .toList();
+        if (interned.size() >= MAX_ROLE_SETS) {
+            return built;
+        }
+        List<GrantedAuthority> existing = interned.putIfAbsent(names, built);
+        return existing != null ? existing : built;
+    }
+}
@@ -1,29 +1,45 @@
 package com.uums.api.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Issues ES256 tokens carrying the kid of the {@link SigningKeyRing} key that signed them, so tenant
+ * services can verify them against {@code /.well-known/jwks.json}. Tokens signed with the shared HMAC
+ * secret before the switch are still accepted while {@code uums.security.jwt.accept-legacy-hmac} is on.
+ */
 @Service
 public class JwtService {
 
-    private final SecretKey key;
+    private final SigningKeyRing keyRing;
+    private final SecretKey legacyKey;
+    private final JwtParser parser;
     private final long accessExpirationSeconds;
     private final long refreshExpirationSeconds;
 
     public JwtService(
+            SigningKeyRing keyRing,
             @Value("${uums.security.jwt.secret}") String secret,
+            @Value("${uums.security.jwt.accept-legacy-hmac:false}") boolean acceptLegacyHmac,
             @Value("${uums.security.jwt.expiration-seconds:3600}") long accessExpirationSeconds,
             @Value("${uums.security.jwt.refresh-expiration-seconds:1209600}") long refreshExpirationSeconds) {
-        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.keyRing = keyRing;
+        this.legacyKey = acceptLegacyHmac ? Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)) : null;
+        this.parser = Jwts.parser().keyLocator(this::verificationKey).build();
         this.accessExpirationSeconds = accessExpirationSeconds;
         this.refreshExpirationSeconds = refreshExpirationSeconds;
     }
@@ -32,37 +48,53 @@ public class JwtService {
         return generateToken(subject, claims, accessExpirationSeconds, "access");
     }
 
-    public String generateRefreshToken(String subject) {
-        return generateToken(subject, Map.of(), refreshExpirationSeconds, "refresh");
+    /**
+     * Refresh tokens get a fresh {@code jti} each time and carry the {@code sid} of the login session they
+     * rotate within.
+     */
+    public String generateRefreshToken(String subject, String sessionId) {
+        return generateToken(subject, Map.of("jti", UUID.randomUUID().toString(), "sid", sessionId),
+                refreshExpirationSeconds, "refresh");
     }
 
     private String generateToken(String subject, Map<String, Object> claims, long ttlSeconds, String tokenType) {
         Instant now = Instant.now();
+        SigningKey signingKey = keyRing.signingKey();
         return Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
                 .subject(subject)
                 .claims(claims)
                 .claim("typ", tokenType)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plusSeconds(ttlSeconds)))
-                .signWith(key)
+                .signWith(signingKey.privateKey(), Jwts.SIG.ES256)
                 .compact();
     }
 
-    public String extractSubjectFromRefreshToken(String refreshToken) {
-        Claims claims = parse(refreshToken);
+    public RefreshToken parseRefreshToken(String refreshToken) {
+        Claims claims = parseClaims(refreshToken);
         Object type = claims.get("typ");
-        if (!"refresh".equals(type)) {
-            throw new JwtException("Invalid token type");
+        if (!"refresh".equals(type) || claims.getId() == null || claims.get("sid") == null) {
+            throw new JwtException("Invalid refresh token");
         }
-        return claims.getSubject();
+        return new RefreshToken(claims.getSubject(), claims.getId(), claims.get("sid", String.class),
+                claims.getExpiration().toInstant());
     }
 
-    private Claims parse(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /** Verifies the signature and expiry of {@code token} and returns its claims. */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    private Key verificationKey(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        if (kid != null) {
+            return keyRing.publicKey(kid).orElseThrow(() -> new JwtException("Unknown signing key"));
+        }
+        if (legacyKey == null) {
+            throw new JwtException("Token has no key id");
+        }
+        return legacyKey;
     }
 
     public long getAccessExpirationSeconds() {
@@ -0,0 +1,16 @@
+package com.uums.api.security;
+
+/** Thrown when the password-hashing executor cannot take or finish a hash in time; answered with 503. */
+public class PasswordHashingSaturatedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingSaturatedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
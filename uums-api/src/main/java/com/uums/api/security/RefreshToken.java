@@ -0,0 +1,7 @@
+package com.uums.api.security;
+
+import java.time.Instant;
+
+/** The claims of a verified refresh token: {@code tokenId} is its jti, {@code sessionId} its sid. */
+public record RefreshToken(String subject, String tokenId, String sessionId, Instant expiresAt) {
+}
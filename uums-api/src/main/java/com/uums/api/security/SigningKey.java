@@ -0,0 +1,7 @@
+package com.uums.api.security;
+
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+
+public record SigningKey(String kid, ECPublicKey publicKey, ECPrivateKey privateKey, long createdAtMs) {
+}
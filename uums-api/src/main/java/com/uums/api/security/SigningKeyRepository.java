@@ -0,0 +1,130 @@
+package com.uums.api.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Persists the ES256 key ring in jwt_signing_key so every replica signs and verifies with the same keys.
+ * Private keys are stored AES-GCM sealed under a key derived from
+ * {@code uums.security.jwt.key-encryption-secret}; the kid is bound in as associated data so a sealed key
+ * cannot be moved to another row.
+ */
+@Component
+public class SigningKeyRepository {
+
+    private static final String ALGORITHM = "ES256";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecretKey encryptionKey;
+    private final SecureRandom random = new SecureRandom();
+
+    public SigningKeyRepository(
+            JdbcTemplate jdbcTemplate,
+            @Value("${uums.security.jwt.key-encryption-secret:}") String encryptionSecret) {
+        if (encryptionSecret.isBlank()) {
+            throw new IllegalStateException("uums.security.jwt.key-encryption-secret must be set");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.encryptionKey = deriveKey(encryptionSecret);
+    }
+
+    public List<SigningKey> findAll() {
+        return jdbcTemplate.query(
+                "SELECT kid, public_key, private_key_sealed, created_at_ms FROM jwt_signing_key "
+                        + "WHERE algorithm = ? ORDER BY created_at_ms DESC, kid",
+                (rs, rowNum) -> {
+                    String kid = rs.getString("kid");
+                    return new SigningKey(
+                            kid,
+                            decodePublicKey(rs.getString("public_key")),
+                            unseal(kid, rs.getString("private_key_sealed")),
+                            rs.getLong("created_at_ms"));
+                },
+                ALGORITHM);
+    }
+
+    public void save(SigningKey key) {
+        jdbcTemplate.update(
+                "INSERT INTO jwt_signing_key (kid, algorithm, public_key, private_key_sealed, created_at_ms) "
+                        + "VALUES (?, ?, ?, ?, ?)",
+                key.kid(),
+                ALGORITHM,
+                Base64.getEncoder().encodeToString(key.publicKey().getEncoded()),
+                seal(key.kid(), key.privateKey()),
+                key.createdAtMs());
+    }
+
+    public int delete(String kid) {
+        return jdbcTemplate.update("DELETE FROM jwt_signing_key WHERE kid = ?", kid);
+    }
+
+    private String seal(String kid, ECPrivateKey privateKey) {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        try {
+            byte[] sealed = cipher(Cipher.ENCRYPT_MODE, kid, iv).doFinal(privateKey.getEncoded());
+            return Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(IV_BYTES + sealed.length).put(iv).put(sealed).array());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to seal signing key " + kid, ex);
+        }
+    }
+
+    private ECPrivateKey unseal(String kid, String sealed) {
+        byte[] bytes = Base64.getDecoder().decode(sealed);
+        try {
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE, kid, Arrays.copyOf(bytes, IV_BYTES));
+            byte[] encoded = cipher.doFinal(bytes, IV_BYTES, bytes.length - IV_BYTES);
+            return (ECPrivateKey) KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to unseal signing key " + kid
+                    + "; check uums.security.jwt.key-encryption-secret", ex);
+        }
+    }
+
+    private Cipher cipher(int mode, String kid, byte[] iv) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher;
+    }
+
+    private static ECPublicKey decodePublicKey(String encoded) {
+        try {
+            return (ECPublicKey) KeyFactory.getInstance("EC")
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Invalid stored signing public key", ex);
+        }
+    }
+
+    private static SecretKey deriveKey(String secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update("uums-jwt-signing-key".getBytes(StandardCharsets.US_ASCII));
+            return new SecretKeySpec(digest.digest(secret.getBytes(StandardCharsets.UTF_8)), "AES");
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
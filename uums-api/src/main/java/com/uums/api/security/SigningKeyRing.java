@@ -0,0 +1,202 @@
+package com.uums.api.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.uums.api.metrics.MetricsSource;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ES256 keys tokens are signed with, shared by all replicas through {@link SigningKeyRepository}.
+ * A new key is generated ahead of the rotation age but only signs once every node and every JWKS cache
+ * can have seen it; older keys stay published until the last token they signed has expired.
+ */
+@Component
+public class SigningKeyRing implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyRing.class);
+    private static final long MIN_RELOAD_INTERVAL_MS = 1000;
+
+    private final SigningKeyRepository repository;
+    private final long rotationMs;
+    private final long activationDelayMs;
+    private final long retentionMs;
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private volatile List<SigningKey> keys;
+    private volatile JWKSet publicJwks = new JWKSet();
+    private volatile long loadedAtMs;
+
+    public SigningKeyRing(
+            SigningKeyRepository repository,
+            @Value("${uums.security.jwt.key-rotation-hours:720}") long rotationHours,
+            @Value("${uums.security.jwt.key-refresh-ms:60000}") long refreshMs,
+            @Value("${uums.security.jwt.jwks-max-age-seconds:300}") long jwksMaxAgeSeconds,
+            @Value("${uums.security.jwt.refresh-expiration-seconds:1209600}") long refreshExpirationSeconds) {
+        this.repository = repository;
+        this.rotationMs = TimeUnit.HOURS.toMillis(rotationHours);
+        this.activationDelayMs = TimeUnit.SECONDS.toMillis(jwksMaxAgeSeconds) + 2 * refreshMs;
+        this.retentionMs = TimeUnit.SECONDS.toMillis(refreshExpirationSeconds);
+    }
+
+    /** The newest key old enough to have been picked up everywhere. */
+    public SigningKey signingKey() {
+        List<SigningKey> current = keys();
+        long nowMs = System.currentTimeMillis();
+        for (SigningKey key : current) {
+            if (key.createdAtMs() + activationDelayMs <= nowMs) {
+                return key;
+            }
+        }
+        return current.getLast();
+    }
+
+    /** Looks up a verification key, reloading the ring once if the kid was minted by another node. */
+    public Optional<ECPublicKey> publicKey(String kid) {
+        Optional<ECPublicKey> key = find(kid);
+        if (key.isEmpty() && reloadIfStale()) {
+            key = find(kid);
+        }
+        return key;
+    }
+
+    /** JWKs matching {@code selector}, reloading the ring once on a miss. */
+    public List<JWK> select(JWKSelector selector) {
+        keys();
+        List<JWK> matches = selector.select(publicJwks);
+        if (matches.isEmpty() && reloadIfStale()) {
+            matches = selector.select(publicJwks);
+        }
+        return matches;
+    }
+
+    public JWKSet publicJwks() {
+        keys();
+        return publicJwks;
+    }
+
+    @Scheduled(fixedDelayString = "${uums.security.jwt.key-refresh-ms:60000}")
+    public void refresh() {
+        try {
+            reload();
+            rotateIfDue(System.currentTimeMillis());
+        } catch (RuntimeException ex) {
+            refreshFailures.increment();
+            log.warn("Failed to refresh JWT signing keys", ex);
+        }
+    }
+
+    synchronized void rotateIfDue(long nowMs) {
+        List<SigningKey> current = keys == null ? List.of() : keys;
+        if (current.isEmpty()) {
+            // nothing can have been signed yet, so the first key is usable at once
+            repository.save(generate(nowMs - activationDelayMs));
+            rotations.increment();
+            reload();
+            return;
+        }
+        if (current.getFirst().createdAtMs() + rotationMs - activationDelayMs <= nowMs) {
+            repository.save(generate(nowMs));
+            rotations.increment();
+            log.info("Generated a new JWT signing key, active in {}s", activationDelayMs / 1000);
+        }
+        for (int i = 1; i < current.size(); i++) {
+            long supersededAtMs = current.get(i - 1).createdAtMs() + activationDelayMs;
+            if (supersededAtMs + retentionMs < nowMs) {
+                repository.delete(current.get(i).kid());
+            }
+        }
+        reload();
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        List<SigningKey> current = keys;
+        return Map.of(
+                "security.jwt.signing-keys", current == null ? 0 : current.size(),
+                "security.jwt.key-rotations", rotations.sum(),
+                "security.jwt.key-refresh-failures", refreshFailures.sum());
+    }
+
+    private List<SigningKey> keys() {
+        List<SigningKey> current = keys;
+        if (current == null || current.isEmpty()) {
+            synchronized (this) {
+                if (keys == null) {
+                    reload();
+                }
+                if (keys.isEmpty()) {
+                    rotateIfDue(System.currentTimeMillis());
+                }
+                current = keys;
+            }
+        }
+        return current;
+    }
+
+    private Optional<ECPublicKey> find(String kid) {
+        return keys().stream()
+                .filter(key -> key.kid().equals(kid))
+                .map(SigningKey::publicKey)
+                .findFirst();
+    }
+
+    private synchronized boolean reloadIfStale() {
+        if (System.currentTimeMillis() - loadedAtMs < MIN_RELOAD_INTERVAL_MS) {
+            return false;
+        }
+        try {
+            reload();
+            return true;
+        } catch (RuntimeException ex) {
+            refreshFailures.increment();
+            log.warn("Failed to reload JWT signing keys", ex);
+            return false;
+        }
+    }
+
+    private synchronized void reload() {
+        List<SigningKey> loaded = List.copyOf(repository.findAll());
+        publicJwks = new JWKSet(loaded.stream()
+                .map(key -> (JWK) new ECKey.Builder(Curve.P_256, key.publicKey())
+                        .keyID(key.kid())
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.ES256)
+                        .build())
+                .toList());
+        keys = loaded;
+        loadedAtMs = System.currentTimeMillis();
+    }
+
+    private static SigningKey generate(long createdAtMs) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair pair = generator.generateKeyPair();
+            return new SigningKey(UUID.randomUUID().toString(), (ECPublicKey) pair.getPublic(),
+                    (ECPrivateKey) pair.getPrivate(), createdAtMs);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("EC key generation not available", ex);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.uums.api.security.revocation;
+
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+/** Rejects access tokens whose session ({@code sid}) has been revoked. */
+@Component
+public class RevokedSessionValidator implements OAuth2TokenValidator<Jwt> {
+
+    private static final OAuth2Error REVOKED =
+            new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "Session has been revoked", null);
+
+    private final TokenRevocationService revocationService;
+
+    public RevokedSessionValidator(TokenRevocationService revocationService) {
+        this.revocationService = revocationService;
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        String sessionId = jwt.getClaimAsString("sid");
+        if (sessionId != null && revocationService.isSessionRevoked(sessionId)) {
+            return OAuth2TokenValidatorResult.failure(REVOKED);
+        }
+        return OAuth2TokenValidatorResult.success();
+    }
+}
@@ -0,0 +1,71 @@
+package com.uums.api.security.revocation;
+
+import com.uums.api.config.DatabaseDialect;
+import java.util.List;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * revoked_token rows: consumed refresh-token ids and revoked sessions, each kept until the last token it
+ * could affect has expired. Writes commit in their own transaction so a revocation survives the
+ * rollback of the request that triggered it.
+ */
+@Component
+public class RevokedTokenRepository {
+
+    static final String KIND_REFRESH_TOKEN = "REFRESH_TOKEN";
+    static final String KIND_SESSION = "SESSION";
+
+    private static final String INSERT =
+            "INSERT INTO revoked_token (token_id, kind, expires_at_ms, revoked_at_ms) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseDialect databaseDialect;
+
+    public RevokedTokenRepository(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DatabaseDialect databaseDialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.databaseDialect = databaseDialect;
+    }
+
+    /** Inserts the row and returns {@code false} if the id was already recorded. */
+    public boolean insert(String tokenId, String kind, long expiresAtMs, long revokedAtMs) {
+        Boolean inserted = transactionTemplate.execute(status -> {
+            if (databaseDialect.isPostgres()) {
+                return jdbcTemplate.update(INSERT + " ON CONFLICT (token_id) DO NOTHING",
+                        tokenId, kind, expiresAtMs, revokedAtMs) == 1;
+            }
+            try {
+                return jdbcTemplate.update(INSERT, tokenId, kind, expiresAtMs, revokedAtMs) == 1;
+            } catch (DuplicateKeyException ex) {
+                return false;
+            }
+        });
+        return Boolean.TRUE.equals(inserted);
+    }
+
+    public boolean exists(String tokenId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM revoked_token WHERE token_id = ?", Integer.class, tokenId);
+        return count != null && count > 0;
+    }
+
+    public List<String> findSessionIdsRevokedSince(long revokedAtMs) {
+        return jdbcTemplate.queryForList(
+                "SELECT token_id FROM revoked_token WHERE kind = ? AND revoked_at_ms >= ?",
+                String.class, KIND_SESSION, revokedAtMs);
+    }
+
+    public int purgeExpired(long nowMs) {
+        return jdbcTemplate.update("DELETE FROM revoked_token WHERE expires_at_ms < ?", nowMs);
+    }
+}
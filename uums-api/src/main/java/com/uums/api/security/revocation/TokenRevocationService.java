@@ -0,0 +1,147 @@
+package com.uums.api.security.revocation;
+
+import com.uums.api.metrics.MetricsSource;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refresh-token rotation and session revocation. Every refresh consumes its token id, so presenting it
+ * again is detected as reuse. Revoked sessions are mirrored into a Bloom filter that every authenticated
+ * request is checked against; only a filter hit costs a database lookup. Other nodes' revocations reach
+ * the filter on the next sync, and the filter is rebuilt from the table to shed expired entries and
+ * resize.
+ */
+@Component
+public class TokenRevocationService implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final long SYNC_OVERLAP_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final RevokedTokenRepository repository;
+    private final long sessionLifetimeMs;
+    private final long rebuildIntervalMs;
+    private final int expectedSessions;
+    private final double falsePositiveRate;
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder reuseDetected = new LongAdder();
+    private final LongAdder syncFailures = new LongAdder();
+    private volatile BloomFilter filter;
+    private long syncedUntilMs;
+    private long rebuiltAtMs;
+
+    public TokenRevocationService(
+            RevokedTokenRepository repository,
+            @Value("${uums.security.jwt.refresh-expiration-seconds:1209600}") long refreshExpirationSeconds,
+            @Value("${uums.security.revocation.rebuild-interval-ms:3600000}") long rebuildIntervalMs,
+            @Value("${uums.security.revocation.expected-sessions:10000}") int expectedSessions,
+            @Value("${uums.security.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.repository = repository;
+        this.sessionLifetimeMs = TimeUnit.SECONDS.toMillis(refreshExpirationSeconds);
+        this.rebuildIntervalMs = rebuildIntervalMs;
+        this.expectedSessions = expectedSessions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public boolean isSessionRevoked(String sessionId) {
+        checks.increment();
+        if (!filter().mightContain(sessionId)) {
+            return false;
+        }
+        filterHits.increment();
+        if (!repository.exists(sessionId)) {
+            return false;
+        }
+        confirmed.increment();
+        return true;
+    }
+
+    /** Marks a refresh token as used; {@code false} means it had been used before. */
+    public boolean consumeRefreshToken(String tokenId, Instant expiresAt) {
+        boolean first = repository.insert(tokenId, RevokedTokenRepository.KIND_REFRESH_TOKEN,
+                expiresAt.toEpochMilli(), System.currentTimeMillis());
+        if (!first) {
+            reuseDetected.increment();
+        }
+        return first;
+    }
+
+    /** Whether the refresh token has already been rotated away, so presenting it would count as reuse. */
+    public boolean isRefreshTokenConsumed(String tokenId) {
+        return repository.exists(tokenId);
+    }
+
+    /** Revokes every access and refresh token issued for the session. */
+    public void revokeSession(String sessionId) {
+        long nowMs = System.currentTimeMillis();
+        repository.insert(sessionId, RevokedTokenRepository.KIND_SESSION, nowMs + sessionLifetimeMs, nowMs);
+        filter().put(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${uums.security.revocation.sync-interval-ms:10000}")
+    public void sync() {
+        try {
+            long nowMs = System.currentTimeMillis();
+            BloomFilter current = filter();
+            if (current.isOverCapacity() || nowMs - rebuiltAtMs >= rebuildIntervalMs) {
+                rebuild(nowMs);
+            } else {
+                addRevokedSince(current, nowMs);
+            }
+        } catch (RuntimeException ex) {
+            syncFailures.increment();
+            log.warn("Failed to sync revoked sessions", ex);
+        }
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        BloomFilter current = filter;
+        return Map.of(
+                "security.revocation.checks", checks.sum(),
+                "security.revocation.filter-hits", filterHits.sum(),
+                "security.revocation.confirmed", confirmed.sum(),
+                "security.revocation.reuse-detected", reuseDetected.sum(),
+                "security.revocation.filter-entries", current == null ? 0 : current.insertions(),
+                "security.revocation.sync-failures", syncFailures.sum());
+    }
+
+    private BloomFilter filter() {
+        BloomFilter current = filter;
+        if (current == null) {
+            synchronized (this) {
+                if (filter == null) {
+                    rebuild(System.currentTimeMillis());
+                }
+                current = filter;
+            }
+        }
+        return current;
+    }
+
+    private synchronized void rebuild(long nowMs) {
+        repository.purgeExpired(nowMs);
+        List<String> revoked = repository.findSessionIdsRevokedSince(0);
+        BloomFilter rebuilt = BloomFilter.create(Math.max(expectedSessions, revoked.size() * 2), falsePositiveRate);
+        revoked.forEach(rebuilt::put);
+        filter = rebuilt;
+        rebuiltAtMs = nowMs;
+        // pick up anything revoked while the table was being read
+        syncedUntilMs = nowMs;
+        addRevokedSince(rebuilt, nowMs);
+    }
+
+    private synchronized void addRevokedSince(BloomFilter target, long nowMs) {
+        repository.findSessionIdsRevokedSince(syncedUntilMs - SYNC_OVERLAP_MS).forEach(target::put);
+        syncedUntilMs = nowMs;
+    }
+}
@@ -11,9 +11,12 @@ import com.uums.api.domain.User;
 import com.uums.api.repository.RoleRepository;
 import com.uums.api.repository.UserRepository;
 import com.uums.api.security.JwtService;
+import com.uums.api.security.RefreshToken;
+import com.uums.api.security.revocation.TokenRevocationService;
 import io.jsonwebtoken.JwtException;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -27,6 +30,7 @@ public class AuthService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final TokenRevocationService revocationService;
     private final int maxFailedAttempts;
 
     public AuthService(
@@ -34,15 +38,20 @@ public class AuthService {
             RoleRepository roleRepository,
             PasswordEncoder passwordEncoder,
             JwtService jwtService,
+            TokenRevocationService revocationService,
             @Value("${uums.security.max-failed-attempts:5}") int maxFailedAttempts) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
+        this.revocationService = revocationService;
         this.maxFailedAttempts = maxFailedAttempts;
     }
 
-    @Transactional
+    /**
+     * Not transactional, so no connection is held while the password is hashed; each repository call
+     * runs in its own short transaction.
+     */
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByUsername(request.username())) {
             throw new AuthException("Username already exists");
@@ -64,28 +73,43 @@ public class AuthService {
         return buildTokenResponse(savedUser);
     }
 
-    @Transactional
     public AuthResponse login(LoginRequest request) {
         User user = validatePrimaryCredentials(request.username(), request.password());
         return buildTokenResponse(user);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Exchanges a refresh token for a new pair within the same session. Each refresh token works once;
+     * presenting a used one again means it leaked, so the whole session is revoked. Deliberately not
+     * transactional: the revocation writes commit on their own connection, and an outer transaction would
+     * hold a second one for the duration.
+     */
     public AuthResponse refresh(RefreshTokenRequest request) {
-        try {
-            String username = jwtService.extractSubjectFromRefreshToken(request.refreshToken());
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new AuthException("Invalid refresh token"));
-            if (user.getAccountStatus() != AccountStatus.ACTIVE) {
-                throw new AuthException("Account is not active");
-            }
-            return buildTokenResponse(user);
-        } catch (JwtException ex) {
+        RefreshToken token = parseRefreshToken(request.refreshToken());
+        if (revocationService.isSessionRevoked(token.sessionId())) {
             throw new AuthException("Invalid refresh token");
         }
+        if (!revocationService.consumeRefreshToken(token.tokenId(), token.expiresAt())) {
+            revocationService.revokeSession(token.sessionId());
+            throw new AuthException("Refresh token reuse detected, session revoked");
+        }
+        User user = userRepository.findByUsername(token.subject())
+                .orElseThrow(() -> new AuthException("Invalid refresh token"));
+        if (user.getAccountStatus() != AccountStatus.ACTIVE) {
+            throw new AuthException("Account is not active");
+        }
+        return buildTokenResponse(user, token.sessionId());
+    }
+
+    public void logout(RefreshTokenRequest request) {
+        revocationService.revokeSession(parseRefreshToken(request.refreshToken()).sessionId());
     }
 
-    @Transactional
+    /**
+     * Checks the password outside any transaction, so a login waiting for a hashing slot never holds a
+     * connection; only the failed-attempt update, or the reset after a success, is written in a short
+     * transaction of its own.
+     */
     public User validatePrimaryCredentials(String username, String password) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new AuthException("Invalid username or password"));
@@ -103,6 +127,9 @@ public class AuthService {
             throw new AuthException("Invalid username or password");
         }
 
+        if (user.getFailedLoginAttempts() == 0) {
+            return user;
+        }
         user.setFailedLoginAttempts(0);
         return userRepository.save(user);
     }
@@ -121,10 +148,23 @@ public class AuthService {
         return buildTokenResponse(user);
     }
 
+    private RefreshToken parseRefreshToken(String refreshToken) {
+        try {
+            return jwtService.parseRefreshToken(refreshToken);
+        } catch (JwtException ex) {
+            throw new AuthException("Invalid refresh token");
+        }
+    }
+
     private AuthResponse buildTokenResponse(User user) {
+        return buildTokenResponse(user, UUID.randomUUID().toString());
+    }
+
+    private AuthResponse buildTokenResponse(User user, String sessionId) {
         Set<String> roles = user.getRoles().stream().map(Role::getRoleCode).collect(Collectors.toSet());
-        String accessToken = jwtService.generateAccessToken(user.getUsername(), Map.of("roles", roles));
-        String refreshToken = jwtService.generateRefreshToken(user.getUsername());
+        String accessToken = jwtService.generateAccessToken(
+                user.getUsername(), Map.of("roles", roles, "sid", sessionId));
+        String refreshToken = jwtService.generateRefreshToken(user.getUsername(), sessionId);
         return new AuthResponse(accessToken, refreshToken, jwtService.getAccessExpirationSeconds(), "Bearer", roles);
     }
 }
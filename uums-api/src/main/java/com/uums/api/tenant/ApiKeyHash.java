@@ -0,0 +1,25 @@
+package com.uums.api.tenant;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Lowercase hex SHA-256 of an API key, the form keys are indexed and looked up by. Must match the
+ * backfill in 012_service_api_key_hash.sql.
+ */
+public final class ApiKeyHash {
+
+    private ApiKeyHash() {
+    }
+
+    public static String of(String apiKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(apiKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.uums.api.tenant;
+
+import com.uums.api.metrics.MetricsSource;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves {@code X-API-Key} values by their SHA-256 through a bounded, TTL-expiring cache, so app2app
+ * requests normally never reach the database. Unknown keys are cached separately in a smaller map, so a
+ * stream of bad keys neither turns into a stream of queries nor evicts valid keys. Entries are dropped
+ * when a key is created or deactivated on this node; other nodes see the change once the TTL runs out.
+ * Each invalidation bumps a stamp for the hash, and a lookup that raced it discards what it loaded.
+ */
+@Component
+public class ApiKeyResolver implements MetricsSource {
+
+    private static final int STAMP_STRIPES = 256;
+
+    private final ServiceApiKeyRepository apiKeyRepository;
+    private final long ttlNanos;
+    private final Cache<CachedKey> keys;
+    private final Cache<Long> unknownKeys;
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ApiKeyResolver(
+            ServiceApiKeyRepository apiKeyRepository,
+            @Value("${uums.security.api-key-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${uums.security.api-key-cache.max-entries:10000}") int maxEntries,
+            @Value("${uums.security.api-key-cache.max-unknown-entries:1000}") int maxUnknownEntries) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.keys = new Cache<>(maxEntries, CachedKey::loadedAt);
+        this.unknownKeys = new Cache<>(maxUnknownEntries, since -> since);
+    }
+
+    public Optional<ResolvedApiKey> resolve(String apiKey) {
+        String hash = ApiKeyHash.of(apiKey);
+        long now = System.nanoTime();
+        CachedKey cached = keys.map.get(hash);
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            hits.increment();
+            return Optional.of(cached.key());
+        }
+        Long unknownSince = unknownKeys.map.get(hash);
+        if (unknownSince != null && now - unknownSince < ttlNanos) {
+            hits.increment();
+            return Optional.empty();
+        }
+        misses.increment();
+        int stripe = stripe(hash);
+        long stamp = stamps.get(stripe);
+        Optional<ResolvedApiKey> key = apiKeyRepository.findActiveByApiKeyHash(hash);
+        if (key.isPresent()) {
+            CachedKey loaded = new CachedKey(key.get(), now);
+            keys.put(hash, loaded, now, ttlNanos);
+            unknownKeys.map.remove(hash);
+            if (stamps.get(stripe) != stamp) {
+                keys.map.remove(hash, loaded);
+            }
+        } else {
+            Long loaded = now;
+            unknownKeys.put(hash, loaded, now, ttlNanos);
+            keys.map.remove(hash);
+            if (stamps.get(stripe) != stamp) {
+                unknownKeys.map.remove(hash, loaded);
+            }
+        }
+        return key;
+    }
+
+    public void invalidate(String apiKeyHash) {
+        stamps.incrementAndGet(stripe(apiKeyHash));
+        keys.map.remove(apiKeyHash);
+        unknownKeys.map.remove(apiKeyHash);
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return Map.of(
+                "security.api-key-cache.size", keys.map.size(),
+                "security.api-key-cache.unknown-size", unknownKeys.map.size(),
+                "security.api-key-cache.hits", hits.sum(),
+                "security.api-key-cache.misses", misses.sum());
+    }
+
+    private static int stripe(String hash) {
+        int h = hash.hashCode();
+        return (h ^ (h >>> 16)) & (STAMP_STRIPES - 1);
+    }
+
+    private record CachedKey(ResolvedApiKey key, long loadedAt) {
+    }
+
+    /**
+     * A concurrent map kept under {@code maxEntries}: when full, one caller sweeps out expired entries and
+     * then arbitrary ones until it is back to seven eighths of the bound.
+     */
+    private static final class Cache<V> {
+
+        private final ConcurrentHashMap<String, V> map = new ConcurrentHashMap<>();
+        private final AtomicBoolean sweeping = new AtomicBoolean();
+        private final int maxEntries;
+        private final ToLongFunction<V> loadedAt;
+
+        private Cache(int maxEntries, ToLongFunction<V> loadedAt) {
+            this.maxEntries = Math.max(1, maxEntries);
+            this.loadedAt = loadedAt;
+        }
+
+        private void put(String hash, V value, long now, long ttlNanos) {
+            if (map.size() >= maxEntries && !map.containsKey(hash) && sweeping.compareAndSet(false, true)) {
+                try {
+                    map.values().removeIf(existing -> now - loadedAt.applyAsLong(existing) >= ttlNanos);
+                    int target = maxEntries - Math.max(1, maxEntries / 8);
+                    Iterator<V> iterator = map.values().iterator();
+                    while (map.size() > target && iterator.hasNext()) {
+                        iterator.next();
+                        iterator.remove();
+                    }
+                } finally {
+                    sweeping.set(false);
+                }
+            }
+            map.put(hash, value);
+        }
+    }
+}
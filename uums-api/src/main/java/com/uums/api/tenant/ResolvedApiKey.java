@@ -0,0 +1,12 @@
+package com.uums.api.tenant;
+
+/**
+ * The service and key behind an authenticated {@code X-API-Key}; the principal of app2app requests.
+ */
+public record ResolvedApiKey(
+        Long serviceId,
+        Long keyId,
+        String keyName,
+        PricingTier pricingTier,
+        int requestLimitPerMinute) {
+}
@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -17,7 +18,8 @@ import java.time.LocalDateTime;
 public class ServiceApiKey {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "service_api_key_seq")
+    @SequenceGenerator(name = "service_api_key_seq", sequenceName = "service_api_key_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -30,6 +32,9 @@ public class ServiceApiKey {
     @Column(name = "api_key", nullable = false, unique = true, length = 128)
     private String apiKey;
 
+    @Column(name = "api_key_hash", nullable = false, unique = true, length = 64)
+    private String apiKeyHash;
+
     @Column(name = "active", nullable = false)
     private boolean active = true;
 
@@ -48,6 +53,8 @@ public class ServiceApiKey {
     public void setKeyName(String keyName) { this.keyName = keyName; }
     public String getApiKey() { return apiKey; }
     public void setApiKey(String apiKey) { this.apiKey = apiKey; }
+    public String getApiKeyHash() { return apiKeyHash; }
+    public void setApiKeyHash(String apiKeyHash) { this.apiKeyHash = apiKeyHash; }
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
     public LocalDateTime getCreatedAt() { return createdAt; }
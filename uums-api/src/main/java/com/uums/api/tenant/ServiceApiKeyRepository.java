@@ -3,8 +3,16 @@ package com.uums.api.tenant;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface ServiceApiKeyRepository extends JpaRepository<ServiceApiKey, Long> {
     List<ServiceApiKey> findByServiceIdOrderByCreatedAtDesc(Long serviceId);
     Optional<ServiceApiKey> findByApiKeyAndActiveTrue(String apiKey);
+
+    @Query("""
+            select new com.uums.api.tenant.ResolvedApiKey(s.id, k.id, k.keyName, s.pricingTier, s.requestLimitPerMinute)
+            from ServiceApiKey k join k.service s
+            where k.apiKeyHash = :apiKeyHash and k.active = true and s.active = true
+            """)
+    Optional<ResolvedApiKey> findActiveByApiKeyHash(String apiKeyHash);
 }
@@ -1,26 +1,37 @@
 package com.uums.api.tenant;
 
+import com.uums.api.tenant.dto.LatencyPercentilesResponse;
 import com.uums.api.tenant.dto.ServiceApiKeyCreateRequest;
 import com.uums.api.tenant.dto.ServiceApiKeyResponse;
 import com.uums.api.tenant.dto.ServiceApplicationResponse;
 import com.uums.api.tenant.dto.ServiceOnboardRequest;
+import com.uums.api.tenant.dto.ServiceStatIncrementRequest;
 import com.uums.api.tenant.dto.ServiceStatRequest;
 import com.uums.api.tenant.dto.ServiceStatResponse;
-import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import com.uums.api.tenant.dto.ServiceTrafficPageResponse;
+import com.uums.api.tenant.dto.ServiceTrafficSketchResponse;
 import com.uums.api.tenant.dto.TrafficIngestRequest;
 import com.uums.api.tenant.dto.TrafficIngestResponse;
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1/services")
@@ -57,15 +68,56 @@ public class ServiceOnboardingController {
         return serviceOnboardingService.listKeys(serviceId);
     }
 
+    @DeleteMapping("/{serviceId}/keys/{keyId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deactivateApiKey(@PathVariable Long serviceId, @PathVariable Long keyId) {
+        serviceOnboardingService.deactivateKey(serviceId, keyId);
+    }
+
     @PostMapping("/traffic/ingest")
     @ResponseStatus(HttpStatus.ACCEPTED)
     public TrafficIngestResponse ingestTraffic(@Valid @RequestBody TrafficIngestRequest request) {
         return serviceOnboardingService.ingestTraffic(request);
     }
 
+    @PostMapping(value = "/traffic/ingest", consumes = "application/x-ndjson")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public TrafficIngestResponse ingestTrafficStream(InputStream body) {
+        return serviceOnboardingService.ingestTrafficStream(body);
+    }
+
     @GetMapping("/{serviceId}/traffic")
-    public List<ServiceTrafficEventResponse> listTraffic(@PathVariable Long serviceId) {
-        return serviceOnboardingService.listTraffic(serviceId);
+    public ServiceTrafficPageResponse listTraffic(
+            @PathVariable Long serviceId,
+            @RequestParam(required = false) String apiName,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorTime,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int pageSize) {
+        return serviceOnboardingService.listTraffic(
+                new TrafficEventQuery(serviceId, apiName, status, from, to, cursorTime, cursorId), pageSize);
+    }
+
+    /**
+     * Live traffic as server-sent events. Only events ingested by the node serving the subscription are
+     * streamed, so behind a load balancer with several replicas this is a sample, not the full feed.
+     */
+    @GetMapping(value = "/{serviceId}/traffic/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTraffic(
+            @PathVariable Long serviceId,
+            @RequestParam(required = false) String apiName,
+            @RequestParam(required = false) String status) {
+        return serviceOnboardingService.streamTraffic(serviceId, apiName, status);
+    }
+
+    @GetMapping("/{serviceId}/latency")
+    public LatencyPercentilesResponse latency(
+            @PathVariable Long serviceId,
+            @RequestParam(required = false) String apiName,
+            @RequestParam(defaultValue = "5") int windowMinutes) {
+        return serviceOnboardingService.latency(serviceId, apiName, windowMinutes);
     }
 
     @PostMapping("/{serviceId}/stats")
@@ -83,8 +135,23 @@ public class ServiceOnboardingController {
         return serviceOnboardingService.upsertServiceStat(serviceId, request);
     }
 
+    @PatchMapping("/{serviceId}/stats/increments")
+    public List<ServiceStatResponse> incrementServiceStats(
+            @PathVariable Long serviceId,
+            @Valid @RequestBody ServiceStatIncrementRequest request) {
+        return serviceOnboardingService.incrementServiceStats(serviceId, request);
+    }
+
     @GetMapping("/{serviceId}/stats")
     public List<ServiceStatResponse> listServiceStats(@PathVariable Long serviceId) {
         return serviceOnboardingService.listServiceStats(serviceId);
     }
+
+    @GetMapping("/{serviceId}/stats/sketch")
+    public ServiceTrafficSketchResponse trafficSketch(
+            @PathVariable Long serviceId,
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "10") int top) {
+        return serviceOnboardingService.trafficSketch(serviceId, hours, top);
+    }
 }
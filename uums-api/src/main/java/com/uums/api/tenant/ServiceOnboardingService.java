@@ -1,42 +1,101 @@
 package com.uums.api.tenant;
 
 import com.uums.api.auth.AuthException;
+import com.uums.api.tenant.dto.LatencyPercentilesResponse;
 import com.uums.api.tenant.dto.ServiceApiKeyCreateRequest;
 import com.uums.api.tenant.dto.ServiceApiKeyResponse;
 import com.uums.api.tenant.dto.ServiceApplicationResponse;
 import com.uums.api.tenant.dto.ServiceOnboardRequest;
+import com.uums.api.tenant.dto.ServiceStatIncrementRequest;
 import com.uums.api.tenant.dto.ServiceStatRequest;
 import com.uums.api.tenant.dto.ServiceStatResponse;
 import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import com.uums.api.tenant.dto.ServiceTrafficPageResponse;
+import com.uums.api.tenant.dto.ServiceTrafficSketchResponse;
+import com.uums.api.tenant.dto.TrafficCursor;
 import com.uums.api.tenant.dto.TrafficIngestMessage;
 import com.uums.api.tenant.dto.TrafficIngestRequest;
 import com.uums.api.tenant.dto.TrafficIngestResponse;
+import com.uums.api.tenant.ingest.TrafficBackpressureException;
+import com.uums.api.tenant.ingest.TrafficIngestPipeline;
+import com.uums.api.tenant.ingest.TrafficNdjsonReader;
+import com.uums.api.tenant.ingest.TrafficProtobufReader;
+import com.uums.api.tenant.ingest.TrafficRecordCursor;
+import com.uums.api.tenant.latency.TrafficLatencyTracker;
+import com.uums.api.tenant.sketch.TrafficSketchTracker;
+import com.uums.api.tenant.stats.ServiceStatDeltaWriter;
+import com.uums.api.tenant.stats.StatKey;
+import com.uums.api.tenant.stream.TrafficStreamBroadcaster;
+import com.uums.api.tenant.window.TrafficHotWindow;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
-import org.springframework.scheduling.annotation.Async;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 public class ServiceOnboardingService {
 
+    private static final int STREAM_CHUNK_SIZE = 256;
+    private static final int MAX_TRAFFIC_PAGE_SIZE = 500;
+
     private final ServiceApplicationRepository serviceRepository;
     private final ServiceApiKeyRepository apiKeyRepository;
     private final ServiceTrafficEventRepository trafficEventRepository;
     private final ServiceStatSnapshotRepository statSnapshotRepository;
+    private final TrafficIngestPipeline trafficIngestPipeline;
+    private final TrafficNdjsonReader trafficNdjsonReader;
+    private final TrafficProtobufReader trafficProtobufReader;
+    private final TrafficStreamBroadcaster trafficStreamBroadcaster;
+    private final TrafficHotWindow trafficHotWindow;
+    private final ServiceStatDeltaWriter statDeltaWriter;
+    private final TrafficLatencyTracker trafficLatencyTracker;
+    private final TrafficSketchTracker trafficSketchTracker;
+    private final ApiKeyResolver apiKeyResolver;
     private final SecureRandom secureRandom = new SecureRandom();
 
     public ServiceOnboardingService(
             ServiceApplicationRepository serviceRepository,
             ServiceApiKeyRepository apiKeyRepository,
             ServiceTrafficEventRepository trafficEventRepository,
-            ServiceStatSnapshotRepository statSnapshotRepository) {
+            ServiceStatSnapshotRepository statSnapshotRepository,
+            TrafficIngestPipeline trafficIngestPipeline,
+            TrafficNdjsonReader trafficNdjsonReader,
+            TrafficProtobufReader trafficProtobufReader,
+            TrafficStreamBroadcaster trafficStreamBroadcaster,
+            TrafficHotWindow trafficHotWindow,
+            ServiceStatDeltaWriter statDeltaWriter,
+            TrafficLatencyTracker trafficLatencyTracker,
+            TrafficSketchTracker trafficSketchTracker,
+            ApiKeyResolver apiKeyResolver) {
         this.serviceRepository = serviceRepository;
         this.apiKeyRepository = apiKeyRepository;
         this.trafficEventRepository = trafficEventRepository;
         this.statSnapshotRepository = statSnapshotRepository;
+        this.trafficIngestPipeline = trafficIngestPipeline;
+        this.trafficNdjsonReader = trafficNdjsonReader;
+        this.trafficProtobufReader = trafficProtobufReader;
+        this.trafficStreamBroadcaster = trafficStreamBroadcaster;
+        this.trafficHotWindow = trafficHotWindow;
+        this.statDeltaWriter = statDeltaWriter;
+        this.trafficLatencyTracker = trafficLatencyTracker;
+        this.trafficSketchTracker = trafficSketchTracker;
+        this.apiKeyResolver = apiKeyResolver;
     }
 
     @Transactional
@@ -57,6 +116,7 @@ public class ServiceOnboardingService {
         defaultKey.setService(saved);
         defaultKey.setKeyName("default");
         defaultKey.setApiKey(saved.getApiKey());
+        defaultKey.setApiKeyHash(ApiKeyHash.of(saved.getApiKey()));
         apiKeyRepository.save(defaultKey);
 
         return toResponse(saved);
@@ -74,7 +134,20 @@ public class ServiceOnboardingService {
         key.setService(service);
         key.setKeyName(request.keyName());
         key.setApiKey(generateApiKey());
-        return toKeyResponse(apiKeyRepository.save(key));
+        key.setApiKeyHash(ApiKeyHash.of(key.getApiKey()));
+        ServiceApiKey saved = apiKeyRepository.save(key);
+        invalidateAfterCommit(saved.getApiKeyHash());
+        return toKeyResponse(saved);
+    }
+
+    @Transactional
+    public void deactivateKey(Long serviceId, Long keyId) {
+        getService(serviceId);
+        ServiceApiKey key = apiKeyRepository.findById(keyId)
+                .filter(existing -> existing.getService().getId().equals(serviceId))
+                .orElseThrow(() -> new AuthException("API key not found for this service: " + keyId));
+        key.setActive(false);
+        invalidateAfterCommit(key.getApiKeyHash());
     }
 
     @Transactional(readOnly = true)
@@ -85,40 +158,67 @@ public class ServiceOnboardingService {
                 .toList();
     }
 
-    @Transactional
+    // not transactional: the service check is one short read, and the WAL append and queue handoff that
+    // follow must not hold a pooled connection
     public TrafficIngestResponse ingestTraffic(TrafficIngestRequest request) {
-        processTrafficMessagesAsync(request.messages());
-        return new TrafficIngestResponse(request.messages().size(), "ACCEPTED");
+        requireServices(request.messages());
+        int accepted = trafficIngestPipeline.offer(request.messages());
+        int rejected = request.messages().size() - accepted;
+        return toIngestResponse(accepted, rejected, rejected > 0);
     }
 
-    @Async
-    @Transactional
-    public void processTrafficMessagesAsync(List<TrafficIngestMessage> messages) {
-        for (TrafficIngestMessage message : messages) {
-            ServiceApplication service = getService(message.serviceId());
-            ServiceTrafficEvent event = new ServiceTrafficEvent();
-            event.setService(service);
-            event.setApiName(message.apiName());
-            event.setInputPayload(message.inputData());
-            event.setStatus(message.status());
-            event.setEventTime(message.eventTime() == null ? LocalDateTime.now() : message.eventTime());
-            trafficEventRepository.save(event);
+    public TrafficIngestResponse ingestTrafficStream(InputStream body) {
+        Set<Long> knownServiceIds = new HashSet<>();
+        Set<Long> unknownServiceIds = new HashSet<>();
+        try (TrafficRecordCursor cursor = trafficNdjsonReader.open(body)) {
+            return ingestRecords(cursor, serviceId -> isKnownService(serviceId, knownServiceIds, unknownServiceIds));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read traffic stream", ex);
+        }
+    }
+
+    public TrafficIngestResponse ingestTrafficFrames(ResolvedApiKey caller, InputStream body) {
+        Long serviceId = caller.serviceId();
+        try (TrafficRecordCursor cursor = trafficProtobufReader.open(body, serviceId, caller.keyName())) {
+            return ingestRecords(cursor, serviceId::equals);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read traffic frames", ex);
         }
     }
 
     @Transactional(readOnly = true)
-    public List<ServiceTrafficEventResponse> listTraffic(Long serviceId) {
+    public ServiceTrafficPageResponse listTraffic(TrafficEventQuery query, int pageSize) {
+        getService(query.serviceId());
+        if ((query.cursorTime() == null) != (query.cursorId() == null)) {
+            throw new AuthException("cursorTime and cursorId must be supplied together");
+        }
+        int limit = Math.clamp(pageSize, 1, MAX_TRAFFIC_PAGE_SIZE);
+        List<ServiceTrafficEventResponse> rows = trafficHotWindow.find(query, limit + 1)
+                .orElseGet(() -> trafficEventRepository.findPage(query, limit + 1));
+        if (rows.size() <= limit) {
+            return new ServiceTrafficPageResponse(rows, null);
+        }
+        List<ServiceTrafficEventResponse> page = rows.subList(0, limit);
+        ServiceTrafficEventResponse last = page.getLast();
+        return new ServiceTrafficPageResponse(List.copyOf(page), new TrafficCursor(last.eventTime(), last.id()));
+    }
+
+    @Transactional(readOnly = true)
+    public SseEmitter streamTraffic(Long serviceId, String apiName, String status) {
         getService(serviceId);
-        return trafficEventRepository.findTop200ByServiceIdOrderByEventTimeDesc(serviceId).stream()
-                .map(event -> new ServiceTrafficEventResponse(
-                        event.getId(),
-                        event.getService().getId(),
-                        event.getService().getServiceName(),
-                        event.getApiName(),
-                        event.getInputPayload(),
-                        event.getStatus(),
-                        event.getEventTime()))
-                .toList();
+        return trafficStreamBroadcaster.subscribe(serviceId, apiName, status);
+    }
+
+    @Transactional(readOnly = true)
+    public LatencyPercentilesResponse latency(Long serviceId, String apiName, int windowMinutes) {
+        getService(serviceId);
+        return trafficLatencyTracker.percentiles(serviceId, apiName, windowMinutes);
+    }
+
+    @Transactional(readOnly = true)
+    public ServiceTrafficSketchResponse trafficSketch(Long serviceId, int hours, int top) {
+        getService(serviceId);
+        return trafficSketchTracker.summary(serviceId, hours, Math.clamp(top, 1, 32));
     }
 
     @Transactional
@@ -153,6 +253,23 @@ public class ServiceOnboardingService {
         return toStatResponse(statSnapshotRepository.save(stat));
     }
 
+    @Transactional
+    public List<ServiceStatResponse> incrementServiceStats(Long serviceId, ServiceStatIncrementRequest request) {
+        ServiceApplication service = getService(serviceId);
+        Map<StatKey, Long> deltas = new LinkedHashMap<>();
+        request.increments().forEach(increment ->
+                deltas.merge(new StatKey(serviceId, increment.statCode()), increment.delta(), Long::sum));
+        return statDeltaWriter.apply(deltas).stream()
+                .map(row -> new ServiceStatResponse(
+                        row.id(),
+                        serviceId,
+                        service.getServiceName(),
+                        row.statCode(),
+                        row.statValue(),
+                        row.updatedAt()))
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public List<ServiceStatResponse> listServiceStats(Long serviceId) {
         getService(serviceId);
@@ -166,6 +283,88 @@ public class ServiceOnboardingService {
                 .orElseThrow(() -> new AuthException("Service not found: " + serviceId));
     }
 
+    private TrafficIngestResponse ingestRecords(TrafficRecordCursor cursor, Predicate<Long> serviceCheck)
+            throws IOException {
+        List<TrafficIngestMessage> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        int accepted = 0;
+        int rejected = 0;
+        boolean backpressured = false;
+        try {
+            while (cursor.next()) {
+                if (backpressured) {
+                    cursor.skip();
+                    rejected++;
+                    continue;
+                }
+                TrafficIngestMessage message = cursor.read();
+                if (message == null || !serviceCheck.test(message.serviceId())) {
+                    rejected++;
+                    continue;
+                }
+                chunk.add(message);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    int offered = trafficIngestPipeline.offer(chunk);
+                    accepted += offered;
+                    rejected += chunk.size() - offered;
+                    backpressured = offered < chunk.size();
+                    chunk.clear();
+                }
+            }
+        } catch (AuthException ex) {
+            // earlier chunks are already in the WAL; a 400 would hide them and the client's retry would
+            // duplicate them, so stop at the bad record and report what was taken
+            if (accepted == 0) {
+                throw ex;
+            }
+            rejected++;
+        }
+        if (!chunk.isEmpty()) {
+            int offered = trafficIngestPipeline.offer(chunk);
+            accepted += offered;
+            rejected += chunk.size() - offered;
+            backpressured = offered < chunk.size();
+        }
+        return toIngestResponse(accepted, rejected, backpressured);
+    }
+
+    private boolean isKnownService(Long serviceId, Set<Long> knownServiceIds, Set<Long> unknownServiceIds) {
+        if (knownServiceIds.contains(serviceId)) {
+            return true;
+        }
+        if (unknownServiceIds.contains(serviceId)) {
+            return false;
+        }
+        boolean exists = serviceRepository.existsById(serviceId);
+        (exists ? knownServiceIds : unknownServiceIds).add(serviceId);
+        return exists;
+    }
+
+    private TrafficIngestResponse toIngestResponse(int accepted, int rejected, boolean backpressured) {
+        TrafficIngestResponse response = new TrafficIngestResponse(
+                accepted,
+                rejected,
+                trafficIngestPipeline.queueDepth(),
+                rejected == 0 ? "ACCEPTED" : accepted == 0 ? "REJECTED" : "PARTIALLY_ACCEPTED");
+        if (backpressured) {
+            HttpStatus status = trafficIngestPipeline.isRunning() ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+            throw new TrafficBackpressureException(response, status, trafficIngestPipeline.getRetryAfterSeconds());
+        }
+        return response;
+    }
+
+    private void requireServices(List<TrafficIngestMessage> messages) {
+        Set<Long> serviceIds = messages.stream().map(TrafficIngestMessage::serviceId).collect(Collectors.toSet());
+        Set<Long> knownIds = serviceRepository.findAllById(serviceIds).stream()
+                .map(ServiceApplication::getId)
+                .collect(Collectors.toSet());
+        serviceIds.stream()
+                .filter(serviceId -> !knownIds.contains(serviceId))
+                .findFirst()
+                .ifPresent(serviceId -> {
+                    throw new AuthException("Service not found: " + serviceId);
+                });
+    }
+
     private int defaultLimit(PricingTier tier) {
         return switch (tier) {
             case FREE -> 60;
@@ -175,6 +374,20 @@ public class ServiceOnboardingService {
         };
     }
 
+    private void invalidateAfterCommit(String apiKeyHash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apiKeyResolver.invalidate(apiKeyHash);
+            return;
+        }
+        // a lookup racing the update could otherwise re-cache the row as it was before commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apiKeyResolver.invalidate(apiKeyHash);
+            }
+        });
+    }
+
     String generateApiKey() {
         byte[] bytes = new byte[24];
         secureRandom.nextBytes(bytes);
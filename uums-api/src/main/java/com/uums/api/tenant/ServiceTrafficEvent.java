@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -17,7 +18,8 @@ import java.time.LocalDateTime;
 public class ServiceTrafficEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "service_traffic_event_seq")
+    @SequenceGenerator(name = "service_traffic_event_seq", sequenceName = "service_traffic_event_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -36,6 +38,12 @@ public class ServiceTrafficEvent {
     @Column(name = "event_time", nullable = false)
     private LocalDateTime eventTime;
 
+    @Column(name = "latency_ms")
+    private Long latencyMs;
+
+    @Column(name = "caller_id", length = 120)
+    private String callerId;
+
     @PrePersist
     void prePersist() {
         if (eventTime == null) {
@@ -54,4 +62,8 @@ public class ServiceTrafficEvent {
     public void setStatus(String status) { this.status = status; }
     public LocalDateTime getEventTime() { return eventTime; }
     public void setEventTime(LocalDateTime eventTime) { this.eventTime = eventTime; }
+    public Long getLatencyMs() { return latencyMs; }
+    public void setLatencyMs(Long latencyMs) { this.latencyMs = latencyMs; }
+    public String getCallerId() { return callerId; }
+    public void setCallerId(String callerId) { this.callerId = callerId; }
 }
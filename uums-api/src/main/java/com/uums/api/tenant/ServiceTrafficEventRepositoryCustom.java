@@ -0,0 +1,8 @@
+package com.uums.api.tenant;
+
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import java.util.List;
+
+public interface ServiceTrafficEventRepositoryCustom {
+    List<ServiceTrafficEventResponse> findPage(TrafficEventQuery query, int limit);
+}
@@ -0,0 +1,69 @@
+package com.uums.api.tenant;
+
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.List;
+
+public class ServiceTrafficEventRepositoryCustomImpl implements ServiceTrafficEventRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public ServiceTrafficEventRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Seeks on (service_id, event_time DESC, id DESC) from the cursor, so every page is a single index
+     * range scan. Filters are appended only when present to keep the plan on that index.
+     */
+    @Override
+    public List<ServiceTrafficEventResponse> findPage(TrafficEventQuery query, int limit) {
+        StringBuilder jpql = new StringBuilder("""
+                select new com.uums.api.tenant.dto.ServiceTrafficEventResponse(
+                    e.id, s.id, s.serviceName, e.apiName, e.inputPayload, e.status, e.eventTime, e.latencyMs, e.callerId)
+                from ServiceTrafficEvent e
+                join e.service s
+                where s.id = :serviceId
+                """);
+        if (query.apiName() != null) {
+            jpql.append(" and e.apiName = :apiName");
+        }
+        if (query.status() != null) {
+            jpql.append(" and e.status = :status");
+        }
+        if (query.from() != null) {
+            jpql.append(" and e.eventTime >= :from");
+        }
+        if (query.to() != null) {
+            jpql.append(" and e.eventTime < :to");
+        }
+        if (query.cursorTime() != null) {
+            jpql.append(" and e.eventTime <= :cursorTime")
+                    .append(" and (e.eventTime < :cursorTime or e.id < :cursorId)");
+        }
+        jpql.append(" order by e.eventTime desc, e.id desc");
+
+        TypedQuery<ServiceTrafficEventResponse> typedQuery =
+                entityManager.createQuery(jpql.toString(), ServiceTrafficEventResponse.class)
+                        .setParameter("serviceId", query.serviceId())
+                        .setMaxResults(limit);
+        if (query.apiName() != null) {
+            typedQuery.setParameter("apiName", query.apiName());
+        }
+        if (query.status() != null) {
+            typedQuery.setParameter("status", query.status());
+        }
+        if (query.from() != null) {
+            typedQuery.setParameter("from", query.from());
+        }
+        if (query.to() != null) {
+            typedQuery.setParameter("to", query.to());
+        }
+        if (query.cursorTime() != null) {
+            typedQuery.setParameter("cursorTime", query.cursorTime());
+            typedQuery.setParameter("cursorId", query.cursorId());
+        }
+        return typedQuery.getResultList();
+    }
+}
@@ -0,0 +1,13 @@
+package com.uums.api.tenant;
+
+import java.time.LocalDateTime;
+
+public record TrafficEventQuery(
+        Long serviceId,
+        String apiName,
+        String status,
+        LocalDateTime from,
+        LocalDateTime to,
+        LocalDateTime cursorTime,
+        Long cursorId) {
+}
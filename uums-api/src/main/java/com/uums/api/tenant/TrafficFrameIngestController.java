@@ -0,0 +1,27 @@
+package com.uums.api.tenant;
+
+import com.uums.api.tenant.dto.TrafficIngestResponse;
+import java.io.InputStream;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/app2app/traffic")
+public class TrafficFrameIngestController {
+
+    private final ServiceOnboardingService serviceOnboardingService;
+
+    public TrafficFrameIngestController(ServiceOnboardingService serviceOnboardingService) {
+        this.serviceOnboardingService = serviceOnboardingService;
+    }
+
+    @PostMapping(consumes = "application/x-protobuf")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public TrafficIngestResponse ingestFrames(@AuthenticationPrincipal ResolvedApiKey caller, InputStream body) {
+        return serviceOnboardingService.ingestTrafficFrames(caller, body);
+    }
+}
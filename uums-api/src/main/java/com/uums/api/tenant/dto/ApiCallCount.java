@@ -0,0 +1,4 @@
+package com.uums.api.tenant.dto;
+
+public record ApiCallCount(String apiName, long estimatedCount) {
+}
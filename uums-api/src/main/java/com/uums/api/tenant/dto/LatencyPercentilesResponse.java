@@ -0,0 +1,13 @@
+package com.uums.api.tenant.dto;
+
+public record LatencyPercentilesResponse(
+        Long serviceId,
+        String apiName,
+        int windowMinutes,
+        long count,
+        long p50,
+        long p90,
+        long p99,
+        long p999,
+        long max) {
+}
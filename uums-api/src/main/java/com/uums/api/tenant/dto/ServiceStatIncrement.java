@@ -0,0 +1,10 @@
+package com.uums.api.tenant.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record ServiceStatIncrement(
+        @NotBlank @Size(max = 80) String statCode,
+        @NotNull Long delta) {
+}
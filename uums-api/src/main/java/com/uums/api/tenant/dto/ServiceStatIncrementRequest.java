@@ -0,0 +1,10 @@
+package com.uums.api.tenant.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record ServiceStatIncrementRequest(
+        @NotEmpty @Size(max = 500) List<@Valid ServiceStatIncrement> increments) {
+}
@@ -9,5 +9,7 @@ public record ServiceTrafficEventResponse(
         String apiName,
         String inputData,
         String status,
-        LocalDateTime eventTime) {
+        LocalDateTime eventTime,
+        Long latencyMs,
+        String callerId) {
 }
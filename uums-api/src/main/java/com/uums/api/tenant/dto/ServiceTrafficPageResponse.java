@@ -0,0 +1,6 @@
+package com.uums.api.tenant.dto;
+
+import java.util.List;
+
+public record ServiceTrafficPageResponse(List<ServiceTrafficEventResponse> items, TrafficCursor nextCursor) {
+}
@@ -0,0 +1,11 @@
+package com.uums.api.tenant.dto;
+
+import java.util.List;
+
+public record ServiceTrafficSketchResponse(
+        Long serviceId,
+        int hours,
+        long distinctApis,
+        long distinctCallers,
+        List<ApiCallCount> topApis) {
+}
@@ -0,0 +1,6 @@
+package com.uums.api.tenant.dto;
+
+import java.time.LocalDateTime;
+
+public record TrafficCursor(LocalDateTime eventTime, Long id) {
+}
@@ -2,6 +2,7 @@ package com.uums.api.tenant.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
@@ -10,5 +11,7 @@ public record TrafficIngestMessage(
         @NotBlank @Size(min = 2, max = 160) String apiName,
         @NotBlank @Size(max = 8000) String inputData,
         @NotBlank @Size(max = 40) String status,
-        LocalDateTime eventTime) {
+        LocalDateTime eventTime,
+        @PositiveOrZero Long latencyMs,
+        @Size(max = 120) String callerId) {
 }
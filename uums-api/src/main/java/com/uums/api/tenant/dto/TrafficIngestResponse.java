@@ -1,4 +1,4 @@
 package com.uums.api.tenant.dto;
 
-public record TrafficIngestResponse(int acceptedCount, String status) {
+public record TrafficIngestResponse(int acceptedCount, int rejectedCount, int queueDepth, String status) {
 }
@@ -0,0 +1,6 @@
+package com.uums.api.tenant.ingest;
+
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+
+public record PendingTrafficMessage(long sequence, TrafficIngestMessage message) {
+}
@@ -0,0 +1,22 @@
+package com.uums.api.tenant.ingest;
+
+import com.uums.api.tenant.dto.TrafficIngestResponse;
+import org.springframework.http.HttpStatus;
+
+public class TrafficBackpressureException extends RuntimeException {
+
+    private final TrafficIngestResponse response;
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public TrafficBackpressureException(TrafficIngestResponse response, HttpStatus status, long retryAfterSeconds) {
+        super("Traffic ingest rejected " + response.rejectedCount() + " messages");
+        this.response = response;
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public TrafficIngestResponse getResponse() { return response; }
+    public HttpStatus getStatus() { return status; }
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -0,0 +1,13 @@
+package com.uums.api.tenant.ingest;
+
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import java.util.List;
+
+/**
+ * Notified on a traffic writer thread after a batch of events has been committed. Implementations must
+ * not block.
+ */
+public interface TrafficEventListener {
+
+    void onTrafficEvents(List<ServiceTrafficEventResponse> events);
+}
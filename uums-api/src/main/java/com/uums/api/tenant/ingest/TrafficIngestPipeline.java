@@ -0,0 +1,318 @@
+package com.uums.api.tenant.ingest;
+
+import com.uums.api.metrics.MetricsSource;
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+/**
+ * Queues accepted traffic messages, already in the write-ahead log, for batched writes. A batch that fails
+ * because the database is unavailable is retried with backoff, holding its writer, so the queue fills and
+ * ingest pushes back instead of the checkpoint stalling. A batch that fails on its data is split until the
+ * offending messages are isolated; those go to the dead-letter file and are committed.
+ */
+@Component
+public class TrafficIngestPipeline implements SmartLifecycle, MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficIngestPipeline.class);
+
+    private final TrafficEventBatchWriter batchWriter;
+    private final TrafficWriteAheadLog writeAheadLog;
+    private final List<TrafficEventListener> listeners;
+    private final BlockingQueue<PendingTrafficMessage> queue;
+    private final int highWaterMark;
+    private final long retryAfterSeconds;
+    private final int writerThreads;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long shutdownTimeoutSeconds;
+    private final long retryBackoffMs;
+    private final long maxRetryBackoffMs;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private volatile ExecutorService writers;
+    private volatile boolean running;
+
+    public TrafficIngestPipeline(
+            TrafficEventBatchWriter batchWriter,
+            TrafficWriteAheadLog writeAheadLog,
+            List<TrafficEventListener> listeners,
+            @Value("${uums.traffic.ingest.queue-capacity:50000}") int queueCapacity,
+            @Value("${uums.traffic.ingest.high-water-mark:40000}") int highWaterMark,
+            @Value("${uums.traffic.ingest.retry-after-seconds:1}") long retryAfterSeconds,
+            @Value("${uums.traffic.ingest.writer-threads:2}") int writerThreads,
+            @Value("${uums.traffic.ingest.batch-size:500}") int batchSize,
+            @Value("${uums.traffic.ingest.linger-ms:50}") long lingerMs,
+            @Value("${uums.traffic.ingest.shutdown-timeout-seconds:30}") long shutdownTimeoutSeconds,
+            @Value("${uums.traffic.ingest.retry-backoff-ms:200}") long retryBackoffMs,
+            @Value("${uums.traffic.ingest.max-retry-backoff-ms:5000}") long maxRetryBackoffMs) {
+        this.batchWriter = batchWriter;
+        this.writeAheadLog = writeAheadLog;
+        this.listeners = listeners;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.highWaterMark = Math.min(highWaterMark, queueCapacity);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.writerThreads = writerThreads;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetryBackoffMs = maxRetryBackoffMs;
+    }
+
+    public int offer(List<TrafficIngestMessage> messages) {
+        if (!running) {
+            return 0;
+        }
+        LocalDateTime acceptedAt = LocalDateTime.now();
+        int room = highWaterMark - queue.size();
+        int accepted = 0;
+        for (TrafficIngestMessage message : messages) {
+            if (accepted >= room) {
+                break;
+            }
+            TrafficIngestMessage stamped = message.eventTime() == null ? withEventTime(message, acceptedAt) : message;
+            long sequence;
+            try {
+                sequence = writeAheadLog.append(stamped);
+            } catch (RuntimeException ex) {
+                log.error("Unable to append traffic message to write-ahead log", ex);
+                break;
+            }
+            if (!queue.offer(new PendingTrafficMessage(sequence, stamped))) {
+                writeAheadLog.commit(List.of(sequence));
+                break;
+            }
+            accepted++;
+        }
+        writeAheadLog.force();
+        return accepted;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return Map.of(
+                "traffic.ingest.queue-depth", queue.size(),
+                "traffic.ingest.retries", retries.sum(),
+                "traffic.ingest.dead-lettered", deadLettered.sum());
+    }
+
+    @Override
+    public void start() {
+        List<PendingTrafficMessage> replayed = new ArrayList<>(batchSize);
+        writeAheadLog.open(pending -> {
+            replayed.add(pending);
+            if (replayed.size() >= batchSize) {
+                flush(replayed);
+            }
+        });
+        flush(replayed);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "traffic-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < writerThreads; i++) {
+            writers.execute(this::drainLoop);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("Traffic writers did not drain within {}s, {} messages left in queue",
+                        shutdownTimeoutSeconds, queue.size());
+                writers.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            writers.shutdownNow();
+        }
+        writeAheadLog.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        List<PendingTrafficMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTrafficMessage first = queue.poll(lingerMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                flush(batch);
+                return;
+            }
+            flush(batch);
+        }
+    }
+
+    private void fillBatch(List<PendingTrafficMessage> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remainingNs = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remainingNs <= 0) {
+                return;
+            }
+            PendingTrafficMessage next = queue.poll(remainingNs, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingTrafficMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            persist(batch);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while persisting traffic, leaving up to {} messages in the write-ahead log",
+                    batch.size());
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void persist(List<PendingTrafficMessage> batch) throws InterruptedException {
+        List<ServiceTrafficEventResponse> persisted = writeWithRetry(batch);
+        if (persisted == null) {
+            if (batch.size() == 1) {
+                deadLetter(batch.getFirst());
+                return;
+            }
+            int middle = batch.size() / 2;
+            persist(batch.subList(0, middle));
+            persist(batch.subList(middle, batch.size()));
+            return;
+        }
+        try {
+            writeAheadLog.commit(batch.stream().map(PendingTrafficMessage::sequence).toList());
+        } catch (RuntimeException ex) {
+            log.error("Failed to checkpoint {} persisted traffic messages; they will be replayed on startup",
+                    batch.size(), ex);
+        }
+        publish(persisted);
+    }
+
+    /** Returns the persisted events, or {@code null} if the batch was rejected because of its data. */
+    private List<ServiceTrafficEventResponse> writeWithRetry(List<PendingTrafficMessage> batch)
+            throws InterruptedException {
+        List<TrafficIngestMessage> messages = batch.stream().map(PendingTrafficMessage::message).toList();
+        long backoffMs = retryBackoffMs;
+        while (true) {
+            try {
+                return batchWriter.write(messages);
+            } catch (RuntimeException ex) {
+                if (isDataError(ex)) {
+                    log.warn("Traffic batch of {} messages rejected by the database: {}", batch.size(), ex.toString());
+                    return null;
+                }
+                retries.increment();
+                log.error("Failed to persist traffic batch of {} messages, retrying in {}ms",
+                        batch.size(), backoffMs, ex);
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, maxRetryBackoffMs);
+            }
+        }
+    }
+
+    private void deadLetter(PendingTrafficMessage pending) {
+        try {
+            writeAheadLog.deadLetter(pending);
+        } catch (RuntimeException ex) {
+            log.error("Unable to dead-letter traffic message {}, leaving it in the write-ahead log",
+                    pending.sequence(), ex);
+            return;
+        }
+        deadLettered.increment();
+        log.error("Dead-lettered traffic message {} for service {} api {}",
+                pending.sequence(), pending.message().serviceId(), pending.message().apiName());
+        writeAheadLog.commit(List.of(pending.sequence()));
+    }
+
+    /**
+     * Integrity and data errors (SQLSTATE classes 23 and 22) and failures outside the database, such as a
+     * service deleted since validation, will fail again however often they are retried. Anything else is
+     * treated as the database being unavailable.
+     */
+    static boolean isDataError(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                String state = sql.getSQLState();
+                return state != null && (state.startsWith("22") || state.startsWith("23"));
+            }
+        }
+        return !(ex instanceof TransactionException || ex instanceof DataAccessResourceFailureException);
+    }
+
+    private void publish(List<ServiceTrafficEventResponse> events) {
+        for (TrafficEventListener listener : listeners) {
+            try {
+                listener.onTrafficEvents(events);
+            } catch (RuntimeException ex) {
+                log.warn("Traffic event listener {} failed", listener.getClass().getSimpleName(), ex);
+            }
+        }
+    }
+
+    private TrafficIngestMessage withEventTime(TrafficIngestMessage message, LocalDateTime eventTime) {
+        return new TrafficIngestMessage(
+                message.serviceId(),
+                message.apiName(),
+                message.inputData(),
+                message.status(),
+                eventTime,
+                message.latencyMs(),
+                message.callerId());
+    }
+}
@@ -0,0 +1,83 @@
+package com.uums.api.tenant.ingest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.uums.api.auth.AuthException;
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TrafficNdjsonReader {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader messageReader;
+    private final Validator validator;
+
+    public TrafficNdjsonReader(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.messageReader = objectMapper.readerFor(TrafficIngestMessage.class);
+        this.validator = validator;
+    }
+
+    public TrafficRecordCursor open(InputStream body) throws IOException {
+        return new Cursor(objectMapper.createParser(body));
+    }
+
+    private final class Cursor implements TrafficRecordCursor {
+
+        private final JsonParser parser;
+        private int record;
+
+        private Cursor(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            JsonToken token = nextToken();
+            if (token == null) {
+                return false;
+            }
+            record++;
+            if (token != JsonToken.START_OBJECT) {
+                throw new AuthException("Traffic record " + record + " is not a JSON object");
+            }
+            return true;
+        }
+
+        @Override
+        public void skip() throws IOException {
+            parser.skipChildren();
+        }
+
+        @Override
+        public TrafficIngestMessage read() throws IOException {
+            TrafficIngestMessage message;
+            try {
+                message = messageReader.readValue(parser);
+            } catch (JsonProcessingException ex) {
+                throw new AuthException("Malformed traffic record " + record + ": " + ex.getOriginalMessage());
+            }
+            return validator.validate(message).isEmpty() ? message : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+
+        private JsonToken nextToken() throws IOException {
+            try {
+                return parser.nextToken();
+            } catch (JsonProcessingException ex) {
+                throw new AuthException("Malformed traffic record " + (record + 1) + ": " + ex.getOriginalMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.uums.api.tenant.ingest;
+
+import com.uums.api.auth.AuthException;
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+import jakarta.validation.Validator;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TrafficProtobufReader {
+
+    private static final int MAX_FRAME_BYTES = 64 * 1024;
+    private static final long MAX_FIELD_NUMBER = (1L << 29) - 1;
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_FIXED32 = 5;
+
+    private final Validator validator;
+
+    public TrafficProtobufReader(Validator validator) {
+        this.validator = validator;
+    }
+
+    public TrafficRecordCursor open(InputStream body, Long defaultServiceId, String defaultCallerId) {
+        return new Cursor(new BufferedInputStream(body), defaultServiceId, defaultCallerId);
+    }
+
+    private final class Cursor implements TrafficRecordCursor {
+
+        private final InputStream in;
+        private final Long defaultServiceId;
+        private final String defaultCallerId;
+        private byte[] frame;
+        private int position;
+        private int record;
+
+        private Cursor(InputStream in, Long defaultServiceId, String defaultCallerId) {
+            this.in = in;
+            this.defaultServiceId = defaultServiceId;
+            this.defaultCallerId = defaultCallerId;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            int first = in.read();
+            if (first < 0) {
+                return false;
+            }
+            record++;
+            long length = readStreamVarint(first);
+            if (length > MAX_FRAME_BYTES) {
+                throw new AuthException("Traffic frame " + record + " exceeds " + MAX_FRAME_BYTES + " bytes");
+            }
+            frame = in.readNBytes((int) length);
+            if (frame.length != length) {
+                throw new AuthException("Traffic frame " + record + " is truncated");
+            }
+            return true;
+        }
+
+        @Override
+        public void skip() {
+            frame = null;
+        }
+
+        @Override
+        public TrafficIngestMessage read() {
+            position = 0;
+            long serviceId = 0;
+            String apiName = null;
+            String inputData = null;
+            String status = null;
+            long eventTimeEpochMs = 0;
+            Long latencyMs = null;
+            String callerId = null;
+            while (position < frame.length) {
+                long tag = readFrameVarint();
+                long fieldNumber = tag >>> 3;
+                if (fieldNumber == 0 || fieldNumber > MAX_FIELD_NUMBER) {
+                    throw new AuthException("Traffic frame " + record + " has an invalid field number");
+                }
+                int field = (int) fieldNumber;
+                int wireType = (int) (tag & 0x7);
+                int expected = expectedWireType(field);
+                if (expected >= 0 && wireType != expected) {
+                    throw new AuthException("Traffic frame " + record + " field " + field
+                            + " has wire type " + wireType + ", expected " + expected);
+                }
+                switch (field) {
+                    case 1 -> serviceId = readFrameVarint();
+                    case 2 -> apiName = readFrameString();
+                    case 3 -> inputData = readFrameString();
+                    case 4 -> status = readFrameString();
+                    case 5 -> eventTimeEpochMs = readFrameVarint();
+                    case 6 -> latencyMs = readFrameVarint();
+                    case 7 -> callerId = readFrameString();
+                    default -> skipField(wireType);
+                }
+            }
+            TrafficIngestMessage message = new TrafficIngestMessage(
+                    serviceId == 0 ? defaultServiceId : serviceId,
+                    apiName,
+                    inputData,
+                    status,
+                    eventTimeEpochMs == 0
+                            ? null
+                            : LocalDateTime.ofInstant(Instant.ofEpochMilli(eventTimeEpochMs), ZoneId.systemDefault()),
+                    latencyMs,
+                    callerId == null ? defaultCallerId : callerId);
+            return validator.validate(message).isEmpty() ? message : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private long readStreamVarint(int first) throws IOException {
+            long value = first & 0x7F;
+            int shift = 7;
+            int current = first;
+            while ((current & 0x80) != 0) {
+                current = in.read();
+                if (current < 0 || shift > 63) {
+                    throw new AuthException("Traffic frame " + record + " has a malformed length prefix");
+                }
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            }
+            return value;
+        }
+
+        private long readFrameVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= frame.length) {
+                    break;
+                }
+                byte current = frame[position++];
+                value |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new AuthException("Traffic frame " + record + " has a malformed varint");
+        }
+
+        private String readFrameString() {
+            long length = readFrameVarint();
+            if (length < 0 || length > frame.length - position) {
+                throw new AuthException("Traffic frame " + record + " has a malformed string field");
+            }
+            String value = new String(frame, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        private void skipField(int wireType) {
+            long length = switch (wireType) {
+                case WIRE_VARINT -> {
+                    readFrameVarint();
+                    yield 0;
+                }
+                case WIRE_FIXED64 -> Long.BYTES;
+                case WIRE_LENGTH_DELIMITED -> readFrameVarint();
+                case WIRE_FIXED32 -> Integer.BYTES;
+                default -> throw new AuthException("Traffic frame " + record + " uses unsupported wire type " + wireType);
+            };
+            if (length < 0 || length > frame.length - position) {
+                throw new AuthException("Traffic frame " + record + " is truncated");
+            }
+            position += (int) length;
+        }
+    }
+
+    /** The wire type of a known TrafficRecord field, or {@code -1} for fields this reader skips. */
+    private static int expectedWireType(int field) {
+        return switch (field) {
+            case 1, 5, 6 -> WIRE_VARINT;
+            case 2, 3, 4, 7 -> WIRE_LENGTH_DELIMITED;
+            default -> -1;
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.uums.api.tenant.ingest;
+
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface TrafficRecordCursor extends Closeable {
+
+    boolean next() throws IOException;
+
+    void skip() throws IOException;
+
+    TrafficIngestMessage read() throws IOException;
+}
@@ -0,0 +1,377 @@
+package com.uums.api.tenant.ingest;
+
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only log of accepted traffic messages, split into fixed-size memory-mapped segments.
+ * Every record carries a sequence number; the highest sequence below which everything has been
+ * committed to the database is kept in a checkpoint file, and sealed segments that fall entirely
+ * below it are deleted. On startup, records above the checkpoint are replayed, so delivery is
+ * at-least-once. Records that can never be persisted are copied to a dead-letter file and committed.
+ * The directory must be persistent and owned by one instance; it is locked while the log is open.
+ */
+@Component
+public class TrafficWriteAheadLog {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficWriteAheadLog.class);
+    private static final byte FORMAT_VERSION = 3;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "traffic-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String LOCK_FILE = "lock";
+    private static final String DEAD_LETTER_FILE = "dead-letter.wal";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSizeBytes;
+    private final boolean forceOnAppend;
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private final Deque<Segment> sealedSegments = new ArrayDeque<>();
+    private Segment activeSegment;
+    private MappedByteBuffer checkpoint;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private long committedSequence;
+    private long lastSequence;
+
+    public TrafficWriteAheadLog(
+            @Value("${uums.traffic.wal.enabled:true}") boolean enabled,
+            @Value("${uums.traffic.wal.directory:}") String directory,
+            @Value("${uums.traffic.wal.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${uums.traffic.wal.force-on-append:false}") boolean forceOnAppend) {
+        if (enabled && directory.isBlank()) {
+            throw new IllegalStateException(
+                    "uums.traffic.wal.directory must point to a persistent directory owned by this instance");
+        }
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentSizeBytes = segmentSizeMb * 1024 * 1024;
+        this.forceOnAppend = forceOnAppend;
+    }
+
+    public synchronized void open(Consumer<PendingTrafficMessage> replay) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            lock(directory.resolve(LOCK_FILE));
+            checkpoint = map(directory.resolve(CHECKPOINT_FILE), Long.BYTES);
+            committedSequence = checkpoint.getLong(0);
+            lastSequence = committedSequence;
+            long replayed = 0;
+            for (Path path : listSegments()) {
+                Segment segment = replaySegment(path, replay);
+                replayed += segment.recordCount;
+                sealedSegments.addLast(segment);
+            }
+            if (replayed > 0) {
+                log.info("Replayed {} traffic messages from write-ahead log {}", replayed, directory);
+            }
+            deleteCommittedSegments();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to open traffic write-ahead log " + directory, ex);
+        }
+    }
+
+    public synchronized long append(TrafficIngestMessage message) {
+        if (!enabled) {
+            return -1;
+        }
+        byte[] payload = encode(message);
+        int recordBytes = RECORD_HEADER_BYTES + Long.BYTES + payload.length;
+        try {
+            if (activeSegment == null || activeSegment.buffer.remaining() < recordBytes + Integer.BYTES) {
+                rollSegment();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to roll traffic write-ahead log segment", ex);
+        }
+        long sequence = ++lastSequence;
+        CRC32C crc = new CRC32C();
+        ByteBuffer body = ByteBuffer.allocate(Long.BYTES + payload.length).putLong(sequence).put(payload).flip();
+        crc.update(body.duplicate());
+        MappedByteBuffer buffer = activeSegment.buffer;
+        int start = buffer.position();
+        buffer.position(start + Integer.BYTES);
+        buffer.putInt((int) crc.getValue()).put(body);
+        buffer.putInt(start, body.capacity());
+        activeSegment.lastSequence = sequence;
+        activeSegment.recordCount++;
+        inFlight.add(sequence);
+        return sequence;
+    }
+
+    public void force() {
+        if (!enabled || !forceOnAppend) {
+            return;
+        }
+        synchronized (this) {
+            if (activeSegment != null) {
+                activeSegment.buffer.force();
+            }
+        }
+    }
+
+    public void commit(Collection<Long> sequences) {
+        if (!enabled || sequences.isEmpty()) {
+            return;
+        }
+        inFlight.removeAll(sequences);
+        synchronized (this) {
+            if (checkpoint == null) {
+                return;
+            }
+            long committed = inFlight.isEmpty() ? lastSequence : inFlight.first() - 1;
+            if (committed > committedSequence) {
+                committedSequence = committed;
+                checkpoint.putLong(0, committed);
+                deleteCommittedSegments();
+            }
+        }
+    }
+
+    /**
+     * Copies a record that can never be persisted to the dead-letter file, so that committing it does not
+     * lose it entirely.
+     */
+    public synchronized void deadLetter(PendingTrafficMessage pending) {
+        if (!enabled) {
+            return;
+        }
+        byte[] payload = encode(pending.message());
+        ByteBuffer body = ByteBuffer.allocate(Long.BYTES + payload.length)
+                .putLong(pending.sequence())
+                .put(payload)
+                .flip();
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + body.capacity())
+                .putInt(body.capacity())
+                .putInt((int) crc.getValue())
+                .put(body)
+                .flip();
+        try (FileChannel channel = FileChannel.open(directory.resolve(DEAD_LETTER_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to write traffic dead-letter record", ex);
+        }
+    }
+
+    public synchronized void close() {
+        if (!enabled || checkpoint == null) {
+            return;
+        }
+        if (activeSegment != null) {
+            activeSegment.buffer.force();
+            sealedSegments.addLast(activeSegment);
+            activeSegment = null;
+        }
+        checkpoint.force();
+        deleteCommittedSegments();
+        if (!inFlight.isEmpty()) {
+            log.warn("Closing traffic write-ahead log with {} uncommitted messages; they will be replayed on startup",
+                    inFlight.size());
+        }
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException ex) {
+            log.warn("Unable to release traffic write-ahead log lock {}", directory, ex);
+        }
+        checkpoint = null;
+    }
+
+    private void lock(Path path) throws IOException {
+        lockChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Traffic write-ahead log " + directory + " is in use by another instance");
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        if (activeSegment != null) {
+            activeSegment.buffer.force();
+            sealedSegments.addLast(activeSegment);
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, lastSequence + 1, SEGMENT_SUFFIX));
+        activeSegment = new Segment(path, map(path, segmentSizeBytes));
+    }
+
+    private void deleteCommittedSegments() {
+        while (!sealedSegments.isEmpty() && sealedSegments.peekFirst().lastSequence <= committedSequence) {
+            Segment segment = sealedSegments.pollFirst();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException ex) {
+                log.warn("Unable to delete committed traffic write-ahead log segment {}", segment.path, ex);
+            }
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Segment replaySegment(Path path, Consumer<PendingTrafficMessage> replay) throws IOException {
+        Segment segment = new Segment(path, null);
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        while (buffer.remaining() >= RECORD_HEADER_BYTES + Long.BYTES) {
+            int length = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (length < Long.BYTES || length > buffer.remaining()) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(buffer.position(), length);
+            CRC32C crc = new CRC32C();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                log.warn("Truncated or corrupt record in traffic write-ahead log segment {}", path);
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            long sequence = body.getLong();
+            segment.lastSequence = sequence;
+            lastSequence = Math.max(lastSequence, sequence);
+            if (sequence > committedSequence) {
+                segment.recordCount++;
+                inFlight.add(sequence);
+                replay.accept(new PendingTrafficMessage(sequence, decode(body)));
+            }
+        }
+        return segment;
+    }
+
+    private MappedByteBuffer map(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    static byte[] encode(TrafficIngestMessage message) {
+        byte[] apiName = message.apiName().getBytes(StandardCharsets.UTF_8);
+        byte[] inputData = message.inputData().getBytes(StandardCharsets.UTF_8);
+        byte[] status = message.status().getBytes(StandardCharsets.UTF_8);
+        byte[] callerId = message.callerId() == null ? null : message.callerId().getBytes(StandardCharsets.UTF_8);
+        LocalDateTime eventTime = message.eventTime();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Long.BYTES * 2 + Integer.BYTES * 4
+                + apiName.length + inputData.length + status.length + 1 + Long.BYTES
+                + Integer.BYTES + (callerId == null ? 0 : callerId.length));
+        buffer.put(FORMAT_VERSION)
+                .putLong(message.serviceId())
+                .putLong(eventTime.toEpochSecond(ZoneOffset.UTC))
+                .putInt(eventTime.getNano());
+        putBytes(buffer, apiName);
+        putBytes(buffer, inputData);
+        putBytes(buffer, status);
+        buffer.put((byte) (message.latencyMs() == null ? 0 : 1))
+                .putLong(message.latencyMs() == null ? 0 : message.latencyMs());
+        if (callerId == null) {
+            buffer.putInt(-1);
+        } else {
+            putBytes(buffer, callerId);
+        }
+        return buffer.array();
+    }
+
+    static TrafficIngestMessage decode(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported traffic write-ahead log record version " + version);
+        }
+        long serviceId = buffer.getLong();
+        LocalDateTime eventTime = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        String apiName = getString(buffer);
+        String inputData = getString(buffer);
+        String status = getString(buffer);
+        Long latencyMs = null;
+        if (version >= 2) {
+            boolean hasLatency = buffer.get() != 0;
+            long latency = buffer.getLong();
+            latencyMs = hasLatency ? latency : null;
+        }
+        String callerId = null;
+        if (version >= 3) {
+            callerId = getNullableString(buffer);
+        }
+        return new TrafficIngestMessage(serviceId, apiName, inputData, status, eventTime, latencyMs, callerId);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getNullableString(ByteBuffer buffer) {
+        int length = buffer.getInt(buffer.position());
+        if (length < 0) {
+            buffer.getInt();
+            return null;
+        }
+        return getString(buffer);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private long lastSequence;
+        private long recordCount;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
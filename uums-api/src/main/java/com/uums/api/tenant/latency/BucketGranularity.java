@@ -0,0 +1,24 @@
+package com.uums.api.tenant.latency;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/** Period length of a stored latency histogram. */
+enum BucketGranularity {
+    MINUTE(60),
+    HOUR(3600);
+
+    private final long seconds;
+
+    BucketGranularity(long seconds) {
+        this.seconds = seconds;
+    }
+
+    long periodOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), seconds);
+    }
+
+    LocalDateTime startOf(long period) {
+        return LocalDateTime.ofEpochSecond(period * seconds, 0, ZoneOffset.UTC);
+    }
+}
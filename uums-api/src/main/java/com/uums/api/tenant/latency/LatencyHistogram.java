@@ -0,0 +1,140 @@
+package com.uums.api.tenant.latency;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram: exact below 32 ms, then 16 linear
+ * sub-buckets per power of two (at most ~6% relative error) up to {@link #MAX_TRACKABLE_MS}. Recording
+ * is lock-free and histograms merge by adding counts. Serialized as deflated (index, count) pairs of the
+ * non-empty buckets.
+ */
+public class LatencyHistogram {
+
+    static final long MAX_TRACKABLE_MS = (1L << 24) - 1;
+
+    private static final int LINEAR_LIMIT = 32;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT_BITS = 5;
+    static final int BUCKET_COUNT = LINEAR_LIMIT + (24 - LINEAR_LIMIT_BITS) * SUB_BUCKETS;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(BUCKET_COUNT);
+
+    public void record(long valueMs) {
+        counts.incrementAndGet(indexOf(Math.clamp(valueMs, 0, MAX_TRACKABLE_MS)));
+    }
+
+    void addTo(long[] totals) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            totals[i] += counts.get(i);
+        }
+    }
+
+    byte[] toBytes() {
+        int[] snapshot = new int[BUCKET_COUNT];
+        int nonEmpty = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            if (snapshot[i] != 0) {
+                nonEmpty++;
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeShort(nonEmpty);
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                if (snapshot[i] != 0) {
+                    out.writeShort(i);
+                    out.writeInt(snapshot[i]);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Adds a serialized histogram's counts to this one. */
+    void add(byte[] payload) {
+        int[] stored = decode(payload);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (stored[i] != 0) {
+                counts.addAndGet(i, stored[i]);
+            }
+        }
+    }
+
+    static void addTo(byte[] payload, long[] totals) {
+        int[] stored = decode(payload);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            totals[i] += stored[i];
+        }
+    }
+
+    private static int[] decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported latency histogram version " + version);
+            }
+            int[] decoded = new int[BUCKET_COUNT];
+            int nonEmpty = in.readUnsignedShort();
+            for (int i = 0; i < nonEmpty; i++) {
+                int index = in.readUnsignedShort();
+                if (index >= BUCKET_COUNT) {
+                    throw new IllegalStateException("Latency histogram bucket " + index + " out of range");
+                }
+                decoded[index] = in.readInt();
+            }
+            return decoded;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static int indexOf(long valueMs) {
+        if (valueMs < LINEAR_LIMIT) {
+            return (int) valueMs;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(valueMs);
+        int subBucket = (int) (valueMs >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - LINEAR_LIMIT_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /** Highest value that maps to the bucket, as HdrHistogram reports percentiles. */
+    static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = LINEAR_LIMIT_BITS + (index - LINEAR_LIMIT) / SUB_BUCKETS;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + subBucket) * width + width - 1;
+    }
+
+    static long percentile(long[] totals, long count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < totals.length; i++) {
+            seen += totals[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return MAX_TRACKABLE_MS;
+    }
+}
@@ -0,0 +1,112 @@
+package com.uums.api.tenant.latency;
+
+import com.uums.api.config.DatabaseDialect;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores one serialized histogram per (service, api, granularity, bucket, node). Each node only ever
+ * overwrites its own rows, so nodes never contend; readers add up the rows of all nodes.
+ */
+@Component
+public class LatencyHistogramRepository {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO service_latency_histogram
+                (node_id, service_id, api_name, granularity, bucket_start, payload, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (service_id, api_name, granularity, bucket_start, node_id)
+            DO UPDATE SET payload = EXCLUDED.payload, updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String H2_MERGE = """
+            MERGE INTO service_latency_histogram
+                (node_id, service_id, api_name, granularity, bucket_start, payload, updated_at)
+            KEY (service_id, api_name, granularity, bucket_start, node_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+
+    public LatencyHistogramRepository(JdbcTemplate jdbcTemplate, DatabaseDialect databaseDialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+    }
+
+    void saveAll(List<StoredHistogram> histograms) {
+        if (histograms.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                databaseDialect.isPostgres() ? POSTGRES_UPSERT : H2_MERGE,
+                histograms.stream()
+                        .map(histogram -> new Object[] {
+                                histogram.nodeId(),
+                                histogram.serviceId(),
+                                histogram.apiName(),
+                                histogram.granularity().name(),
+                                Timestamp.valueOf(histogram.bucketStart()),
+                                histogram.payload(),
+                                now})
+                        .toList());
+    }
+
+    /** Rows of every node for the service (and api, when given) with buckets in [fromBucket, toBucket]. */
+    List<StoredHistogram> findByService(
+            Long serviceId, String apiName, BucketGranularity granularity, LocalDateTime fromBucket,
+            LocalDateTime toBucket) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT node_id, service_id, api_name, granularity, bucket_start, payload
+                FROM service_latency_histogram
+                WHERE service_id = ? AND granularity = ? AND bucket_start >= ? AND bucket_start <= ?
+                """);
+        List<Object> parameters = new ArrayList<>(List.of(
+                serviceId, granularity.name(), Timestamp.valueOf(fromBucket), Timestamp.valueOf(toBucket)));
+        if (apiName != null) {
+            sql.append(" AND api_name = ?");
+            parameters.add(apiName);
+        }
+        return jdbcTemplate.query(sql.toString(), this::mapRow, parameters.toArray());
+    }
+
+    List<StoredHistogram> findByNode(
+            String nodeId, Long serviceId, String apiName, BucketGranularity granularity, LocalDateTime bucketStart) {
+        return jdbcTemplate.query(
+                """
+                SELECT node_id, service_id, api_name, granularity, bucket_start, payload
+                FROM service_latency_histogram
+                WHERE service_id = ? AND api_name = ? AND granularity = ? AND bucket_start = ? AND node_id = ?
+                """,
+                this::mapRow,
+                serviceId,
+                apiName,
+                granularity.name(),
+                Timestamp.valueOf(bucketStart),
+                nodeId);
+    }
+
+    int deleteOlderThan(BucketGranularity granularity, LocalDateTime bucketStart) {
+        return jdbcTemplate.update(
+                "DELETE FROM service_latency_histogram WHERE granularity = ? AND bucket_start < ?",
+                granularity.name(),
+                Timestamp.valueOf(bucketStart));
+    }
+
+    private StoredHistogram mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new StoredHistogram(
+                rs.getString("node_id"),
+                rs.getLong("service_id"),
+                rs.getString("api_name"),
+                BucketGranularity.valueOf(rs.getString("granularity")),
+                rs.getTimestamp("bucket_start").toLocalDateTime(),
+                rs.getBytes("payload"));
+    }
+}
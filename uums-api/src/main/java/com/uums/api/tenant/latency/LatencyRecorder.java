@@ -0,0 +1,83 @@
+package com.uums.api.tenant.latency;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongConsumer;
+
+/**
+ * Latency histograms of one (service, apiName) series in two rotating rings: one bucket per minute and
+ * one per hour. A slot is reused once its period has passed out of the ring; events older than the
+ * ring are ignored.
+ */
+class LatencyRecorder {
+
+    private final AtomicReferenceArray<PeriodHistogram> minutes;
+    private final AtomicReferenceArray<PeriodHistogram> hours;
+
+    LatencyRecorder(int minuteBuckets, int hourBuckets) {
+        this.minutes = new AtomicReferenceArray<>(minuteBuckets);
+        this.hours = new AtomicReferenceArray<>(hourBuckets);
+    }
+
+    void record(long epochMinute, long latencyMs) {
+        record(minutes, epochMinute, latencyMs);
+        record(hours, epochMinute / 60, latencyMs);
+    }
+
+    /**
+     * Adds the minute buckets in (nowMinute - spanMinutes, nowMinute] to {@code totals} and reports the
+     * periods of those already reconciled with this node's stored rows.
+     */
+    void addMinutes(long nowMinute, int spanMinutes, long[] totals, LongConsumer reconciled) {
+        addPeriods(minutes, nowMinute, spanMinutes, totals, reconciled);
+    }
+
+    void addHours(long nowHour, int spanHours, long[] totals, LongConsumer reconciled) {
+        addPeriods(hours, nowHour, spanHours, totals, reconciled);
+    }
+
+    /** The bucket of the period, or {@code null} once the ring has moved past it. */
+    PeriodHistogram bucket(BucketGranularity granularity, long period) {
+        AtomicReferenceArray<PeriodHistogram> ring = granularity == BucketGranularity.MINUTE ? minutes : hours;
+        PeriodHistogram bucket = ring.get((int) Math.floorMod(period, (long) ring.length()));
+        return bucket != null && bucket.period == period ? bucket : null;
+    }
+
+    private static void record(AtomicReferenceArray<PeriodHistogram> ring, long period, long latencyMs) {
+        int slot = (int) Math.floorMod(period, (long) ring.length());
+        while (true) {
+            PeriodHistogram current = ring.get(slot);
+            if (current != null && current.period == period) {
+                current.histogram.record(latencyMs);
+                return;
+            }
+            if (current != null && current.period > period) {
+                return;
+            }
+            ring.compareAndSet(slot, current, new PeriodHistogram(period));
+        }
+    }
+
+    private static void addPeriods(
+            AtomicReferenceArray<PeriodHistogram> ring, long now, int span, long[] totals, LongConsumer reconciled) {
+        int periods = Math.min(span, ring.length());
+        for (long period = now - periods + 1; period <= now; period++) {
+            PeriodHistogram bucket = ring.get((int) Math.floorMod(period, (long) ring.length()));
+            if (bucket != null && bucket.period == period) {
+                bucket.histogram.addTo(totals);
+                if (bucket.reconciled) {
+                    reconciled.accept(period);
+                }
+            }
+        }
+    }
+
+    static final class PeriodHistogram {
+        private final long period;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        volatile boolean reconciled;
+
+        private PeriodHistogram(long period) {
+            this.period = period;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.uums.api.tenant.latency;
+
+import java.time.LocalDateTime;
+
+record StoredHistogram(
+        String nodeId,
+        Long serviceId,
+        String apiName,
+        BucketGranularity granularity,
+        LocalDateTime bucketStart,
+        byte[] payload) {
+}
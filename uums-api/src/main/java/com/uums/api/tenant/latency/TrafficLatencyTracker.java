@@ -0,0 +1,251 @@
+package com.uums.api.tenant.latency;
+
+import com.uums.api.metrics.MetricsSource;
+import com.uums.api.tenant.dto.LatencyPercentilesResponse;
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import com.uums.api.tenant.ingest.TrafficEventListener;
+import com.uums.api.tenant.latency.LatencyRecorder.PeriodHistogram;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the latency of committed traffic into per-(service, apiName) histograms. Windows up to the
+ * minute ring are answered from minute buckets, longer ones from hour buckets. The number of series is
+ * capped, least recently used first out. Touched buckets are flushed to service_latency_histogram
+ * periodically and on shutdown, and queries add up the rows of every node, so percentiles cover all
+ * replicas and survive restarts.
+ */
+@Component
+public class TrafficLatencyTracker implements TrafficEventListener, MetricsSource, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficLatencyTracker.class);
+
+    private final LatencyHistogramRepository repository;
+    private final String nodeId;
+    private final int minuteBuckets;
+    private final int hourBuckets;
+    private final Map<SeriesKey, LatencyRecorder> series;
+    private final Map<DirtyKey, LatencyRecorder> dirty = new ConcurrentHashMap<>();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private volatile boolean running;
+
+    public TrafficLatencyTracker(
+            LatencyHistogramRepository repository,
+            @Value("${uums.node-id:${HOSTNAME:local}}") String nodeId,
+            @Value("${uums.traffic.latency.minute-buckets:60}") int minuteBuckets,
+            @Value("${uums.traffic.latency.hour-buckets:24}") int hourBuckets,
+            @Value("${uums.traffic.latency.max-series:1000}") int maxSeries) {
+        this.repository = repository;
+        this.nodeId = nodeId;
+        this.minuteBuckets = minuteBuckets;
+        this.hourBuckets = hourBuckets;
+        this.series = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SeriesKey, LatencyRecorder> eldest) {
+                if (size() > maxSeries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void onTrafficEvents(List<ServiceTrafficEventResponse> events) {
+        Map<DirtyKey, LatencyRecorder> touched = new HashMap<>();
+        for (ServiceTrafficEventResponse event : events) {
+            if (event.latencyMs() == null) {
+                continue;
+            }
+            SeriesKey key = new SeriesKey(event.serviceId(), event.apiName());
+            LatencyRecorder recorder;
+            synchronized (series) {
+                recorder = series.computeIfAbsent(key, ignored -> new LatencyRecorder(minuteBuckets, hourBuckets));
+            }
+            long minute = BucketGranularity.MINUTE.periodOf(event.eventTime());
+            recorder.record(minute, event.latencyMs());
+            touched.put(new DirtyKey(key, BucketGranularity.MINUTE, minute), recorder);
+            touched.put(new DirtyKey(key, BucketGranularity.HOUR, minute / 60), recorder);
+        }
+        dirty.putAll(touched);
+    }
+
+    public LatencyPercentilesResponse percentiles(Long serviceId, String apiName, int windowMinutes) {
+        int window = Math.clamp(windowMinutes, 1, Math.max(minuteBuckets, hourBuckets * 60));
+        Map<String, LatencyRecorder> recorders = new HashMap<>();
+        synchronized (series) {
+            series.forEach((key, recorder) -> {
+                if (key.serviceId().equals(serviceId) && (apiName == null || key.apiName().equals(apiName))) {
+                    recorders.put(key.apiName(), recorder);
+                }
+            });
+        }
+        BucketGranularity granularity = window <= minuteBuckets ? BucketGranularity.MINUTE : BucketGranularity.HOUR;
+        long nowMinute = BucketGranularity.MINUTE.periodOf(LocalDateTime.now());
+        long nowPeriod = granularity == BucketGranularity.MINUTE ? nowMinute : nowMinute / 60;
+        int span = granularity == BucketGranularity.MINUTE ? window : (window + 59) / 60;
+        long[] totals = new long[LatencyHistogram.BUCKET_COUNT];
+        Set<LocalBucket> reconciledLocally = new HashSet<>();
+        recorders.forEach((api, recorder) -> {
+            LongConsumer reconciled = period -> reconciledLocally.add(new LocalBucket(api, period));
+            if (granularity == BucketGranularity.MINUTE) {
+                recorder.addMinutes(nowPeriod, span, totals, reconciled);
+            } else {
+                recorder.addHours(nowPeriod, span, totals, reconciled);
+            }
+        });
+        List<StoredHistogram> stored = repository.findByService(serviceId, apiName, granularity,
+                granularity.startOf(nowPeriod - span + 1), granularity.startOf(nowPeriod));
+        for (StoredHistogram row : stored) {
+            LocalBucket bucket = new LocalBucket(row.apiName(), granularity.periodOf(row.bucketStart()));
+            if (nodeId.equals(row.nodeId()) && reconciledLocally.contains(bucket)) {
+                continue;
+            }
+            LatencyHistogram.addTo(row.payload(), totals);
+        }
+        long count = 0;
+        int highest = -1;
+        for (int i = 0; i < totals.length; i++) {
+            count += totals[i];
+            if (totals[i] > 0) {
+                highest = i;
+            }
+        }
+        return new LatencyPercentilesResponse(
+                serviceId,
+                apiName,
+                window,
+                count,
+                LatencyHistogram.percentile(totals, count, 50),
+                LatencyHistogram.percentile(totals, count, 90),
+                LatencyHistogram.percentile(totals, count, 99),
+                LatencyHistogram.percentile(totals, count, 99.9),
+                highest < 0 ? 0 : LatencyHistogram.highestValueOf(highest));
+    }
+
+    @Scheduled(fixedDelayString = "${uums.traffic.latency.flush-interval-ms:60000}")
+    public void flush() {
+        flush(LocalDateTime.now());
+    }
+
+    synchronized void flush(LocalDateTime now) {
+        List<DirtyKey> keys = new ArrayList<>(dirty.keySet());
+        if (!keys.isEmpty() && !write(keys)) {
+            return;
+        }
+        try {
+            long nowMinute = BucketGranularity.MINUTE.periodOf(now);
+            repository.deleteOlderThan(BucketGranularity.MINUTE,
+                    BucketGranularity.MINUTE.startOf(nowMinute - minuteBuckets + 1));
+            repository.deleteOlderThan(BucketGranularity.HOUR,
+                    BucketGranularity.HOUR.startOf(nowMinute / 60 - hourBuckets + 1));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to purge expired latency histograms", ex);
+        }
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        int size;
+        synchronized (series) {
+            size = series.size();
+        }
+        return Map.of(
+                "traffic.latency.series", size,
+                "traffic.latency.evictions", evictions.sum(),
+                "traffic.latency.flushes", flushes.sum(),
+                "traffic.latency.flush-failures", flushFailures.sum());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    private boolean write(List<DirtyKey> keys) {
+        Map<DirtyKey, LatencyRecorder> taken = new HashMap<>();
+        List<StoredHistogram> rows = new ArrayList<>(keys.size());
+        try {
+            for (DirtyKey key : keys) {
+                LatencyRecorder recorder = dirty.remove(key);
+                if (recorder == null) {
+                    continue;
+                }
+                taken.put(key, recorder);
+                PeriodHistogram bucket = recorder.bucket(key.granularity(), key.period());
+                if (bucket == null) {
+                    // the ring has moved on; what it held was written by an earlier flush
+                    continue;
+                }
+                LocalDateTime bucketStart = key.granularity().startOf(key.period());
+                reconcile(key, bucketStart, bucket);
+                rows.add(new StoredHistogram(nodeId, key.series().serviceId(), key.series().apiName(),
+                        key.granularity(), bucketStart, bucket.histogram.toBytes()));
+            }
+            repository.saveAll(rows);
+            flushes.increment();
+            return true;
+        } catch (RuntimeException ex) {
+            flushFailures.increment();
+            taken.forEach(dirty::putIfAbsent);
+            log.error("Failed to flush {} latency histograms, keeping them for the next attempt", keys.size(), ex);
+            return false;
+        }
+    }
+
+    /**
+     * A bucket created after a restart (or after its series was evicted) starts empty while this node may
+     * already have a row for the same period; fold that row in once before the first overwrite.
+     */
+    private void reconcile(DirtyKey key, LocalDateTime bucketStart, PeriodHistogram bucket) {
+        if (bucket.reconciled) {
+            return;
+        }
+        repository.findByNode(nodeId, key.series().serviceId(), key.series().apiName(), key.granularity(), bucketStart)
+                .forEach(row -> bucket.histogram.add(row.payload()));
+        bucket.reconciled = true;
+    }
+
+    private record SeriesKey(Long serviceId, String apiName) {
+    }
+
+    private record DirtyKey(SeriesKey series, BucketGranularity granularity, long period) {
+    }
+
+    private record LocalBucket(String apiName, long period) {
+    }
+}
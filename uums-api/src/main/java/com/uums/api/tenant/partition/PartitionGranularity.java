@@ -0,0 +1,27 @@
+package com.uums.api.tenant.partition;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+public enum PartitionGranularity {
+    DAILY(DateTimeFormatter.BASIC_ISO_DATE),
+    MONTHLY(DateTimeFormatter.ofPattern("yyyyMM"));
+
+    private final DateTimeFormatter suffixFormat;
+
+    PartitionGranularity(DateTimeFormatter suffixFormat) {
+        this.suffixFormat = suffixFormat;
+    }
+
+    public LocalDate floor(LocalDate date) {
+        return this == DAILY ? date : date.withDayOfMonth(1);
+    }
+
+    public LocalDate next(LocalDate periodStart) {
+        return this == DAILY ? periodStart.plusDays(1) : periodStart.plusMonths(1);
+    }
+
+    public String suffix(LocalDate periodStart) {
+        return suffixFormat.format(periodStart);
+    }
+}
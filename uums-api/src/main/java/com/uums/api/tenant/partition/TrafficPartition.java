@@ -0,0 +1,9 @@
+package com.uums.api.tenant.partition;
+
+import java.time.LocalDateTime;
+
+/**
+ * One range partition of service_traffic_event; {@code from} is null for a MINVALUE lower bound.
+ */
+public record TrafficPartition(String name, LocalDateTime from, LocalDateTime to) {
+}
@@ -0,0 +1,192 @@
+package com.uums.api.tenant.partition;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the Postgres range partitions of service_traffic_event ahead of the clock and drops the ones that
+ * have aged out of retention. New rows that arrive before their partition exists land in the default
+ * partition and are moved into the partition when it is created. Every replica schedules this; a run
+ * happens in one transaction under a Postgres advisory lock, and replicas that find it taken skip theirs.
+ */
+@Component
+public class TrafficPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficPartitionManager.class);
+
+    static final String PARENT_TABLE = "service_traffic_event";
+    static final String DEFAULT_PARTITION = PARENT_TABLE + "_default";
+
+    private static final Pattern RANGE_BOUND = Pattern.compile("FOR VALUES FROM \\((.+)\\) TO \\((.+)\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final long MAINTENANCE_LOCK_KEY = 0x5354455F50415254L;
+
+    private static final String PARTITIONED_SQL = """
+            SELECT COUNT(*)
+            FROM pg_partitioned_table pt
+            JOIN pg_class c ON c.oid = pt.partrelid
+            WHERE c.relname = ?
+            """;
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final PartitionGranularity granularity;
+    private final int premakePeriods;
+    private final int retentionDays;
+    private Clock clock = Clock.systemDefaultZone();
+
+    public TrafficPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${uums.traffic.partitioning.enabled:false}") boolean enabled,
+            @Value("${uums.traffic.partitioning.granularity:DAILY}") PartitionGranularity granularity,
+            @Value("${uums.traffic.partitioning.premake-periods:7}") int premakePeriods,
+            @Value("${uums.traffic.partitioning.retention-days:90}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.granularity = granularity;
+        this.premakePeriods = premakePeriods;
+        this.retentionDays = retentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${uums.traffic.partitioning.cron:0 5 * * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Boolean locked = jdbcTemplate.queryForObject(
+                        "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, MAINTENANCE_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    log.debug("Traffic partition maintenance is running on another node, skipping");
+                    return;
+                }
+                maintainPartitions();
+            });
+        } catch (DataAccessException | TransactionException ex) {
+            log.error("Traffic partition maintenance failed", ex);
+        }
+    }
+
+    private void maintainPartitions() {
+        Integer partitioned = jdbcTemplate.queryForObject(PARTITIONED_SQL, Integer.class, PARENT_TABLE);
+        if (partitioned == null || partitioned == 0) {
+            log.warn("Traffic partitioning is enabled but {} is not a partitioned table", PARENT_TABLE);
+            return;
+        }
+        List<TrafficPartition> existing = loadPartitions();
+        for (TrafficPartition partition : partitionsToCreate(existing)) {
+            createPartition(partition);
+        }
+        for (TrafficPartition partition : partitionsToDrop(existing)) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition.name());
+            log.info("Dropped expired traffic partition {}", partition.name());
+        }
+        jdbcTemplate.update(
+                "DELETE FROM " + DEFAULT_PARTITION + " WHERE event_time < ?", Timestamp.valueOf(retentionCutoff()));
+    }
+
+    List<TrafficPartition> partitionsToCreate(List<TrafficPartition> existing) {
+        LocalDate today = LocalDate.now(clock);
+        LocalDateTime horizon = granularity.floor(today).atStartOfDay();
+        for (int i = 0; i <= premakePeriods; i++) {
+            horizon = granularity.next(horizon.toLocalDate()).atStartOfDay();
+        }
+        LocalDateTime cursor = existing.stream()
+                .map(TrafficPartition::to)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(granularity.floor(today).atStartOfDay());
+        List<TrafficPartition> toCreate = new ArrayList<>();
+        while (cursor.isBefore(horizon)) {
+            LocalDate periodStart = granularity.floor(cursor.toLocalDate());
+            LocalDateTime end = granularity.next(periodStart).atStartOfDay();
+            toCreate.add(new TrafficPartition(PARENT_TABLE + "_p" + granularity.suffix(periodStart), cursor, end));
+            cursor = end;
+        }
+        return toCreate;
+    }
+
+    List<TrafficPartition> partitionsToDrop(List<TrafficPartition> existing) {
+        LocalDateTime cutoff = retentionCutoff();
+        return existing.stream()
+                .filter(partition -> partition.to() != null && !partition.to().isAfter(cutoff))
+                .toList();
+    }
+
+    private LocalDateTime retentionCutoff() {
+        return LocalDate.now(clock).minusDays(retentionDays).atStartOfDay();
+    }
+
+    private List<TrafficPartition> loadPartitions() {
+        List<TrafficPartition> partitions = new ArrayList<>();
+        jdbcTemplate.query(PARTITIONS_SQL, rs -> {
+            Matcher matcher = RANGE_BOUND.matcher(rs.getString(2));
+            if (matcher.matches()) {
+                partitions.add(new TrafficPartition(
+                        rs.getString(1), parseBound(matcher.group(1)), parseBound(matcher.group(2))));
+            }
+        }, PARENT_TABLE);
+        return partitions;
+    }
+
+    private void createPartition(TrafficPartition partition) {
+        jdbcTemplate.execute("CREATE TABLE " + partition.name()
+                + " (LIKE " + PARENT_TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                        + " WHERE event_time >= ? AND event_time < ? RETURNING *) INSERT INTO "
+                        + partition.name() + " SELECT * FROM moved",
+                Timestamp.valueOf(partition.from()), Timestamp.valueOf(partition.to()));
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + partition.name()
+                + " FOR VALUES FROM ('" + BOUND_FORMAT.format(partition.from()) + "') TO ('"
+                + BOUND_FORMAT.format(partition.to()) + "')");
+        log.info("Created traffic partition {} [{}, {}), moved {} rows from the default partition",
+                partition.name(), partition.from(), partition.to(), moved);
+    }
+
+    private static LocalDateTime parseBound(String bound) {
+        if ("MINVALUE".equals(bound) || "MAXVALUE".equals(bound)) {
+            return null;
+        }
+        String value = bound.replace("'", "");
+        int fraction = value.indexOf('.');
+        return LocalDateTime.parse(fraction < 0 ? value : value.substring(0, fraction), BOUND_FORMAT);
+    }
+}
@@ -0,0 +1,125 @@
+package com.uums.api.tenant.sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Count-min sketch of per-key frequencies plus a bounded set of heavy-hitter candidates. Estimates never
+ * undercount; merging adds the counter matrices and re-ranks the union of both candidate sets.
+ */
+class CountMinTopK {
+
+    private final int depth;
+    private final int width;
+    private final int capacity;
+    private final int[] counts;
+    private final Map<String, Long> candidates = new HashMap<>();
+
+    CountMinTopK(int depth, int width, int capacity) {
+        this.depth = depth;
+        this.width = width;
+        this.capacity = capacity;
+        this.counts = new int[depth * width];
+    }
+
+    void add(String key) {
+        long hash = SketchHashing.hash64(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(hash, row);
+            counts[cell]++;
+            estimate = Math.min(estimate, counts[cell]);
+        }
+        offerCandidate(key, estimate);
+    }
+
+    long estimate(String key) {
+        long hash = SketchHashing.hash64(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[cell(hash, row)]);
+        }
+        return estimate;
+    }
+
+    List<Map.Entry<String, Long>> top(int limit) {
+        return candidates.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    void merge(CountMinTopK other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge count-min sketches of different shape");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        Set<String> keys = new HashSet<>(candidates.keySet());
+        keys.addAll(other.candidates.keySet());
+        candidates.clear();
+        keys.stream()
+                .map(key -> Map.entry(key, estimate(key)))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(capacity)
+                .forEach(entry -> candidates.put(entry.getKey(), entry.getValue()));
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeShort(depth);
+        out.writeInt(width);
+        out.writeShort(capacity);
+        for (int count : counts) {
+            out.writeInt(count);
+        }
+        out.writeShort(candidates.size());
+        for (String key : candidates.keySet()) {
+            out.writeUTF(key);
+        }
+    }
+
+    static CountMinTopK read(DataInput in) throws IOException {
+        CountMinTopK sketch = new CountMinTopK(in.readUnsignedShort(), in.readInt(), in.readUnsignedShort());
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = in.readInt();
+        }
+        int candidateCount = in.readUnsignedShort();
+        for (int i = 0; i < candidateCount; i++) {
+            String key = in.readUTF();
+            sketch.candidates.put(key, sketch.estimate(key));
+        }
+        return sketch;
+    }
+
+    private void offerCandidate(String key, long estimate) {
+        if (candidates.containsKey(key) || candidates.size() < capacity) {
+            candidates.put(key, estimate);
+            return;
+        }
+        Map.Entry<String, Long> weakest = null;
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            if (weakest == null || entry.getValue() < weakest.getValue()) {
+                weakest = entry;
+            }
+        }
+        if (weakest != null && estimate > weakest.getValue()) {
+            candidates.remove(weakest.getKey());
+            candidates.put(key, estimate);
+        }
+    }
+
+    private int cell(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+}
@@ -0,0 +1,93 @@
+package com.uums.api.tenant.sketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Sketches of one service over one time bucket: distinct APIs, distinct callers and API heavy hitters.
+ * Serialized deflated, since most registers and counters of a quiet bucket are zero.
+ */
+class ServiceTrafficSketch {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HLL_PRECISION = 12;
+    private static final int CMS_DEPTH = 4;
+    private static final int CMS_WIDTH = 1024;
+    private static final int TOP_K_CAPACITY = 32;
+
+    private final HyperLogLog apis;
+    private final HyperLogLog callers;
+    private final CountMinTopK apiCounts;
+
+    ServiceTrafficSketch() {
+        this(new HyperLogLog(HLL_PRECISION), new HyperLogLog(HLL_PRECISION),
+                new CountMinTopK(CMS_DEPTH, CMS_WIDTH, TOP_K_CAPACITY));
+    }
+
+    private ServiceTrafficSketch(HyperLogLog apis, HyperLogLog callers, CountMinTopK apiCounts) {
+        this.apis = apis;
+        this.callers = callers;
+        this.apiCounts = apiCounts;
+    }
+
+    synchronized void add(String apiName, String callerId) {
+        apis.add(SketchHashing.hash64(apiName));
+        apiCounts.add(apiName);
+        if (callerId != null) {
+            callers.add(SketchHashing.hash64(callerId));
+        }
+    }
+
+    synchronized void merge(ServiceTrafficSketch other) {
+        synchronized (other) {
+            apis.merge(other.apis);
+            callers.merge(other.callers);
+            apiCounts.merge(other.apiCounts);
+        }
+    }
+
+    synchronized long distinctApis() {
+        return apis.estimate();
+    }
+
+    synchronized long distinctCallers() {
+        return callers.estimate();
+    }
+
+    synchronized List<Map.Entry<String, Long>> topApis(int limit) {
+        return apiCounts.top(limit);
+    }
+
+    synchronized byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeByte(FORMAT_VERSION);
+            apis.write(out);
+            callers.write(out);
+            apiCounts.write(out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static ServiceTrafficSketch fromBytes(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported traffic sketch version " + version);
+            }
+            return new ServiceTrafficSketch(HyperLogLog.read(in), HyperLogLog.read(in), CountMinTopK.read(in));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
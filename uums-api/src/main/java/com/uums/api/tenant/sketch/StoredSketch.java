@@ -0,0 +1,6 @@
+package com.uums.api.tenant.sketch;
+
+import java.time.LocalDateTime;
+
+record StoredSketch(String nodeId, Long serviceId, LocalDateTime bucketStart, byte[] payload) {
+}
@@ -0,0 +1,94 @@
+package com.uums.api.tenant.sketch;
+
+import com.uums.api.config.DatabaseDialect;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores one serialized sketch per (service, hour bucket, node). Each node only ever overwrites its own
+ * rows, so nodes never contend; readers merge the rows of all nodes.
+ */
+@Component
+public class TrafficSketchRepository {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO service_traffic_sketch (node_id, service_id, bucket_start, payload, updated_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (service_id, bucket_start, node_id)
+            DO UPDATE SET payload = EXCLUDED.payload, updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String H2_MERGE = """
+            MERGE INTO service_traffic_sketch (node_id, service_id, bucket_start, payload, updated_at)
+            KEY (service_id, bucket_start, node_id)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+
+    public TrafficSketchRepository(JdbcTemplate jdbcTemplate, DatabaseDialect databaseDialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+    }
+
+    void saveAll(List<StoredSketch> sketches) {
+        if (sketches.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                databaseDialect.isPostgres() ? POSTGRES_UPSERT : H2_MERGE,
+                sketches.stream()
+                        .map(sketch -> new Object[] {
+                                sketch.nodeId(),
+                                sketch.serviceId(),
+                                Timestamp.valueOf(sketch.bucketStart()),
+                                sketch.payload(),
+                                now})
+                        .toList());
+    }
+
+    List<StoredSketch> findByService(Long serviceId, LocalDateTime fromBucket) {
+        return jdbcTemplate.query(
+                """
+                SELECT node_id, service_id, bucket_start, payload
+                FROM service_traffic_sketch
+                WHERE service_id = ? AND bucket_start >= ?
+                """,
+                this::mapRow,
+                serviceId,
+                Timestamp.valueOf(fromBucket));
+    }
+
+    List<StoredSketch> findByNode(String nodeId, Long serviceId, LocalDateTime bucketStart) {
+        return jdbcTemplate.query(
+                """
+                SELECT node_id, service_id, bucket_start, payload
+                FROM service_traffic_sketch
+                WHERE service_id = ? AND bucket_start = ? AND node_id = ?
+                """,
+                this::mapRow,
+                serviceId,
+                Timestamp.valueOf(bucketStart),
+                nodeId);
+    }
+
+    int deleteOlderThan(LocalDateTime bucketStart) {
+        return jdbcTemplate.update(
+                "DELETE FROM service_traffic_sketch WHERE bucket_start < ?", Timestamp.valueOf(bucketStart));
+    }
+
+    private StoredSketch mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new StoredSketch(
+                rs.getString("node_id"),
+                rs.getLong("service_id"),
+                rs.getTimestamp("bucket_start").toLocalDateTime(),
+                rs.getBytes("payload"));
+    }
+}
@@ -0,0 +1,205 @@
+package com.uums.api.tenant.sketch;
+
+import com.uums.api.metrics.MetricsSource;
+import com.uums.api.tenant.dto.ApiCallCount;
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import com.uums.api.tenant.dto.ServiceTrafficSketchResponse;
+import com.uums.api.tenant.ingest.TrafficEventListener;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sketches committed traffic per service and hour: distinct APIs and callers (HyperLogLog) and the
+ * busiest APIs (count-min with heavy-hitter candidates). Only the current and previous hour live in
+ * memory; they are flushed to service_traffic_sketch periodically and on shutdown, and queries merge the
+ * rows of every node over the requested window.
+ */
+@Component
+public class TrafficSketchTracker implements TrafficEventListener, MetricsSource, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficSketchTracker.class);
+
+    private final TrafficSketchRepository repository;
+    private final String nodeId;
+    private final int retentionHours;
+    private final Map<BucketKey, SketchBucket> buckets = new ConcurrentHashMap<>();
+    private final Set<BucketKey> dirty = ConcurrentHashMap.newKeySet();
+    private final LongAdder lateEvents = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private volatile boolean running;
+
+    public TrafficSketchTracker(
+            TrafficSketchRepository repository,
+            @Value("${uums.node-id:${HOSTNAME:local}}") String nodeId,
+            @Value("${uums.traffic.sketch.retention-hours:168}") int retentionHours) {
+        this.repository = repository;
+        this.nodeId = nodeId;
+        this.retentionHours = retentionHours;
+    }
+
+    @Override
+    public void onTrafficEvents(List<ServiceTrafficEventResponse> events) {
+        LocalDateTime oldestBucket = hourOf(LocalDateTime.now()).minusHours(1);
+        for (ServiceTrafficEventResponse event : events) {
+            LocalDateTime bucketStart = hourOf(event.eventTime());
+            if (bucketStart.isBefore(oldestBucket)) {
+                lateEvents.increment();
+                continue;
+            }
+            BucketKey key = new BucketKey(event.serviceId(), bucketStart);
+            // under the map's lock, so a flush cannot evict the bucket between the add and the dirty mark
+            buckets.compute(key, (ignored, bucket) -> {
+                SketchBucket target = bucket == null ? new SketchBucket() : bucket;
+                target.sketch.add(event.apiName(), event.callerId());
+                dirty.add(key);
+                return target;
+            });
+        }
+    }
+
+    public ServiceTrafficSketchResponse summary(Long serviceId, int hours, int top) {
+        int window = Math.clamp(hours, 1, retentionHours);
+        LocalDateTime fromBucket = hourOf(LocalDateTime.now()).minusHours(window - 1L);
+        ServiceTrafficSketch merged = new ServiceTrafficSketch();
+        Set<LocalDateTime> reconciledLocally = new HashSet<>();
+        buckets.forEach((key, bucket) -> {
+            if (key.serviceId().equals(serviceId) && !key.bucketStart().isBefore(fromBucket)) {
+                synchronized (bucket) {
+                    merged.merge(bucket.sketch);
+                    if (bucket.reconciled) {
+                        reconciledLocally.add(key.bucketStart());
+                    }
+                }
+            }
+        });
+        for (StoredSketch stored : repository.findByService(serviceId, fromBucket)) {
+            if (nodeId.equals(stored.nodeId()) && reconciledLocally.contains(stored.bucketStart())) {
+                continue;
+            }
+            merged.merge(ServiceTrafficSketch.fromBytes(stored.payload()));
+        }
+        List<ApiCallCount> topApis = merged.topApis(top).stream()
+                .map(entry -> new ApiCallCount(entry.getKey(), entry.getValue()))
+                .toList();
+        return new ServiceTrafficSketchResponse(
+                serviceId, window, merged.distinctApis(), merged.distinctCallers(), topApis);
+    }
+
+    @Scheduled(fixedDelayString = "${uums.traffic.sketch.flush-interval-ms:60000}")
+    public void flush() {
+        flush(LocalDateTime.now());
+    }
+
+    synchronized void flush(LocalDateTime now) {
+        List<BucketKey> keys = new ArrayList<>(dirty);
+        if (!keys.isEmpty() && !write(keys)) {
+            return;
+        }
+        LocalDateTime oldestBucket = hourOf(now).minusHours(1);
+        for (BucketKey key : List.copyOf(buckets.keySet())) {
+            if (key.bucketStart().isBefore(oldestBucket)) {
+                buckets.computeIfPresent(key, (ignored, bucket) -> dirty.contains(key) ? bucket : null);
+            }
+        }
+        try {
+            repository.deleteOlderThan(hourOf(now).minusHours(retentionHours - 1L));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to purge expired traffic sketches", ex);
+        }
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return Map.of(
+                "traffic.sketch.buckets", buckets.size(),
+                "traffic.sketch.late-events", lateEvents.sum(),
+                "traffic.sketch.flushes", flushes.sum(),
+                "traffic.sketch.flush-failures", flushFailures.sum());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    private boolean write(List<BucketKey> keys) {
+        List<StoredSketch> rows = new ArrayList<>(keys.size());
+        try {
+            for (BucketKey key : keys) {
+                SketchBucket bucket = buckets.get(key);
+                dirty.remove(key);
+                if (bucket == null) {
+                    continue;
+                }
+                reconcile(key, bucket);
+                rows.add(new StoredSketch(nodeId, key.serviceId(), key.bucketStart(), bucket.sketch.toBytes()));
+            }
+            repository.saveAll(rows);
+            flushes.increment();
+            return true;
+        } catch (RuntimeException ex) {
+            flushFailures.increment();
+            dirty.addAll(keys);
+            log.error("Failed to flush {} traffic sketches, keeping them for the next attempt", keys.size(), ex);
+            return false;
+        }
+    }
+
+    /**
+     * A bucket created after a restart starts empty while this node may already have a row for the same
+     * hour; fold that row in once before the first overwrite.
+     */
+    private void reconcile(BucketKey key, SketchBucket bucket) {
+        if (bucket.reconciled) {
+            return;
+        }
+        List<StoredSketch> stored = repository.findByNode(nodeId, key.serviceId(), key.bucketStart());
+        synchronized (bucket) {
+            stored.forEach(row -> bucket.sketch.merge(ServiceTrafficSketch.fromBytes(row.payload())));
+            bucket.reconciled = true;
+        }
+    }
+
+    private static LocalDateTime hourOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private record BucketKey(Long serviceId, LocalDateTime bucketStart) {
+    }
+
+    private static final class SketchBucket {
+
+        private final ServiceTrafficSketch sketch = new ServiceTrafficSketch();
+        private volatile boolean reconciled;
+    }
+}
@@ -0,0 +1,133 @@
+package com.uums.api.tenant.stats;
+
+import com.uums.api.config.DatabaseDialect;
+import com.uums.api.metrics.MetricsSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Insert-only log of stat deltas. Writers append their deltas to service_stat_delta inside their own
+ * transaction, so a delta exists exactly when the data it counts does, and no writer touches the hot
+ * service_stat_snapshot row. A periodic fold moves the logged deltas into the snapshot: on PostgreSQL one
+ * {@code DELETE ... RETURNING} feeding an {@code INSERT ... ON CONFLICT DO UPDATE}, with
+ * {@code SKIP LOCKED} so replicas folding at the same time take disjoint rows.
+ */
+@Component
+public class ServiceStatDeltaLog implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceStatDeltaLog.class);
+
+    private static final String INSERT_DELTA =
+            "INSERT INTO service_stat_delta (service_id, stat_code, delta, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String POSTGRES_FOLD = """
+            WITH folded AS (
+                DELETE FROM service_stat_delta
+                WHERE id IN (SELECT id FROM service_stat_delta ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)
+                RETURNING service_id, stat_code, delta
+            )
+            INSERT INTO service_stat_snapshot AS s (service_id, stat_code, stat_value, updated_at)
+            SELECT service_id, stat_code, SUM(delta), CAST(? AS TIMESTAMP) FROM folded
+            GROUP BY service_id, stat_code
+            ORDER BY service_id, stat_code
+            ON CONFLICT (service_id, stat_code)
+            DO UPDATE SET stat_value = s.stat_value + EXCLUDED.stat_value, updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String H2_SELECT_PENDING =
+            "SELECT id, service_id, stat_code, delta FROM service_stat_delta ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String DELETE_DELTA = "DELETE FROM service_stat_delta WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseDialect databaseDialect;
+    private final ServiceStatDeltaWriter deltaWriter;
+    private final int foldBatchSize;
+    private final LongAdder folds = new LongAdder();
+    private final LongAdder foldFailures = new LongAdder();
+    private final LongAdder foldedKeys = new LongAdder();
+
+    public ServiceStatDeltaLog(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DatabaseDialect databaseDialect,
+            ServiceStatDeltaWriter deltaWriter,
+            @Value("${uums.traffic.stats.fold-batch-size:10000}") int foldBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.databaseDialect = databaseDialect;
+        this.deltaWriter = deltaWriter;
+        this.foldBatchSize = foldBatchSize;
+    }
+
+    /**
+     * Appends the deltas in the caller's transaction.
+     */
+    public void append(Map<StatKey, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(new Object[] {key.serviceId(), key.statCode(), delta, now}));
+        jdbcTemplate.batchUpdate(INSERT_DELTA, rows);
+    }
+
+    @Scheduled(fixedDelayString = "${uums.traffic.stats.flush-interval-ms:5000}")
+    public void fold() {
+        try {
+            Integer keys = transactionTemplate.execute(status ->
+                    databaseDialect.isPostgres() ? foldPostgres() : foldH2());
+            folds.increment();
+            foldedKeys.add(keys == null ? 0 : keys);
+        } catch (DataAccessException | TransactionException ex) {
+            foldFailures.increment();
+            log.error("Failed to fold stat deltas, leaving them for the next attempt", ex);
+        }
+    }
+
+    private int foldPostgres() {
+        return jdbcTemplate.update(POSTGRES_FOLD, foldBatchSize, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // local only: H2 has no data-modifying CTE, so the locked rows are summed here and deleted by id
+    private int foldH2() {
+        List<Long> ids = new ArrayList<>();
+        Map<StatKey, Long> deltas = new HashMap<>();
+        jdbcTemplate.query(H2_SELECT_PENDING, rs -> {
+            ids.add(rs.getLong("id"));
+            StatKey key = new StatKey(rs.getLong("service_id"), rs.getString("stat_code"));
+            deltas.merge(key, rs.getLong("delta"), Long::sum);
+        }, foldBatchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        deltaWriter.apply(deltas);
+        jdbcTemplate.batchUpdate(DELETE_DELTA, ids.stream().map(id -> new Object[] {id}).toList());
+        return deltas.size();
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return Map.of(
+                "traffic.stats.folds", folds.sum(),
+                "traffic.stats.fold-failures", foldFailures.sum(),
+                "traffic.stats.folded-keys", foldedKeys.sum());
+    }
+}
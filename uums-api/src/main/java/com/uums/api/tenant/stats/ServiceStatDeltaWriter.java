@@ -0,0 +1,133 @@
+package com.uums.api.tenant.stats;
+
+import com.uums.api.config.DatabaseDialect;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Applies stat deltas as one set-based upsert per chunk: {@code INSERT ... ON CONFLICT DO UPDATE ...
+ * RETURNING} on PostgreSQL and an equivalent {@code MERGE} plus read-back on H2. The increment happens
+ * inside the database, so concurrent writers never lose updates. Keys are applied in a fixed order so
+ * two writers touching the same services lock their rows in the same order and cannot deadlock.
+ */
+@Component
+public class ServiceStatDeltaWriter {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO service_stat_snapshot AS s (service_id, stat_code, stat_value, updated_at)
+            VALUES %s
+            ON CONFLICT (service_id, stat_code)
+            DO UPDATE SET stat_value = s.stat_value + EXCLUDED.stat_value, updated_at = EXCLUDED.updated_at
+            RETURNING id, service_id, stat_code, stat_value, updated_at
+            """;
+
+    private static final String H2_MERGE = """
+            MERGE INTO service_stat_snapshot s
+            USING (VALUES %s) AS d(service_id, stat_code, delta, updated_at)
+            ON s.service_id = d.service_id AND s.stat_code = d.stat_code
+            WHEN MATCHED THEN UPDATE SET stat_value = s.stat_value + d.delta, updated_at = d.updated_at
+            WHEN NOT MATCHED THEN INSERT (id, service_id, stat_code, stat_value, updated_at)
+                VALUES (NEXT VALUE FOR service_stat_snapshot_seq, d.service_id, d.stat_code, d.delta, d.updated_at)
+            """;
+
+    private static final String H2_SELECT = """
+            SELECT id, service_id, stat_code, stat_value, updated_at
+            FROM service_stat_snapshot
+            WHERE service_id IN (%s) AND stat_code IN (%s)
+            """;
+
+    private static final String ROW_PLACEHOLDER =
+            "(CAST(? AS BIGINT), CAST(? AS VARCHAR(80)), CAST(? AS BIGINT), CAST(? AS TIMESTAMP))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseDialect databaseDialect;
+
+    public ServiceStatDeltaWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DatabaseDialect databaseDialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.databaseDialect = databaseDialect;
+    }
+
+    public List<StatRow> apply(Map<StatKey, Long> deltas) {
+        List<Map.Entry<StatKey, Long>> entries = new ArrayList<>(deltas.entrySet());
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        entries.sort(Map.Entry.comparingByKey(
+                Comparator.comparing(StatKey::serviceId).thenComparing(StatKey::statCode)));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<StatRow> rows = transactionTemplate.execute(status -> {
+            List<StatRow> applied = new ArrayList<>(entries.size());
+            for (int from = 0; from < entries.size(); from += MAX_ROWS_PER_STATEMENT) {
+                List<Map.Entry<StatKey, Long>> chunk =
+                        entries.subList(from, Math.min(entries.size(), from + MAX_ROWS_PER_STATEMENT));
+                applied.addAll(databaseDialect.isPostgres() ? upsertPostgres(chunk, now) : mergeH2(chunk, now));
+            }
+            return applied;
+        });
+        rows.sort(Comparator.comparing(StatRow::serviceId).thenComparing(StatRow::statCode));
+        return rows;
+    }
+
+    private List<StatRow> upsertPostgres(List<Map.Entry<StatKey, Long>> chunk, Timestamp now) {
+        String sql = POSTGRES_UPSERT.formatted(String.join(", ", Collections.nCopies(chunk.size(), ROW_PLACEHOLDER)));
+        return jdbcTemplate.query(sql, this::mapRow, rowParameters(chunk, now));
+    }
+
+    private List<StatRow> mergeH2(List<Map.Entry<StatKey, Long>> chunk, Timestamp now) {
+        jdbcTemplate.update(
+                H2_MERGE.formatted(String.join(", ", Collections.nCopies(chunk.size(), ROW_PLACEHOLDER))),
+                rowParameters(chunk, now));
+        Set<StatKey> keys = chunk.stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+        List<Object> serviceIds = keys.stream().map(StatKey::serviceId).distinct().map(Object.class::cast).toList();
+        List<Object> statCodes = keys.stream().map(StatKey::statCode).distinct().map(Object.class::cast).toList();
+        List<Object> parameters = new ArrayList<>(serviceIds);
+        parameters.addAll(statCodes);
+        String sql = H2_SELECT.formatted(
+                String.join(", ", Collections.nCopies(serviceIds.size(), "?")),
+                String.join(", ", Collections.nCopies(statCodes.size(), "?")));
+        return jdbcTemplate.query(sql, this::mapRow, parameters.toArray()).stream()
+                .filter(row -> keys.contains(new StatKey(row.serviceId(), row.statCode())))
+                .toList();
+    }
+
+    private static Object[] rowParameters(List<Map.Entry<StatKey, Long>> chunk, Timestamp now) {
+        Object[] parameters = new Object[chunk.size() * 4];
+        int i = 0;
+        for (Map.Entry<StatKey, Long> entry : chunk) {
+            parameters[i++] = entry.getKey().serviceId();
+            parameters[i++] = entry.getKey().statCode();
+            parameters[i++] = entry.getValue();
+            parameters[i++] = now;
+        }
+        return parameters;
+    }
+
+    private StatRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new StatRow(
+                rs.getLong("id"),
+                rs.getLong("service_id"),
+                rs.getString("stat_code"),
+                rs.getLong("stat_value"),
+                rs.getTimestamp("updated_at").toLocalDateTime());
+    }
+}
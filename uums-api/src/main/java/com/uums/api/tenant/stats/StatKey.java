@@ -0,0 +1,4 @@
+package com.uums.api.tenant.stats;
+
+public record StatKey(Long serviceId, String statCode) {
+}
@@ -0,0 +1,6 @@
+package com.uums.api.tenant.stats;
+
+import java.time.LocalDateTime;
+
+public record StatRow(Long id, Long serviceId, String statCode, Long statValue, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,136 @@
+package com.uums.api.tenant.stream;
+
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import com.uums.api.tenant.ingest.TrafficEventListener;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans committed traffic events out to SSE subscribers. The writer thread only appends to each
+ * subscriber's bounded buffer; sends happen on a small dispatcher pool so a slow client can never stall
+ * ingest, and once its buffer is full it loses its oldest events. Only events ingested by this node are
+ * seen: with several replicas, a subscriber receives the share of traffic its own node ingested.
+ */
+@Component
+public class TrafficStreamBroadcaster implements TrafficEventListener, DisposableBean {
+
+    private final Map<Long, Set<TrafficStreamSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public TrafficStreamBroadcaster(
+            @Value("${uums.traffic.stream.buffer-size:256}") int bufferSize,
+            @Value("${uums.traffic.stream.dispatcher-threads:4}") int dispatcherThreads,
+            @Value("${uums.traffic.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${uums.traffic.stream.max-subscribers:2000}") int maxSubscribers) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+            Thread thread = new Thread(runnable, "traffic-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public SseEmitter subscribe(Long serviceId, String apiName, String status) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many traffic stream subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        TrafficStreamSubscriber subscriber = new TrafficStreamSubscriber(emitter, apiName, status, bufferSize);
+        subscribers.computeIfAbsent(serviceId, id -> new CopyOnWriteArraySet<>()).add(subscriber);
+        Runnable remove = () -> unsubscribe(serviceId, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    @Override
+    public void onTrafficEvents(List<ServiceTrafficEventResponse> events) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<TrafficStreamSubscriber> touched = new HashSet<>();
+        for (ServiceTrafficEventResponse event : events) {
+            Set<TrafficStreamSubscriber> serviceSubscribers = subscribers.get(event.serviceId());
+            if (serviceSubscribers == null) {
+                continue;
+            }
+            for (TrafficStreamSubscriber subscriber : serviceSubscribers) {
+                if (subscriber.matches(event)) {
+                    subscriber.enqueue(event);
+                    touched.add(subscriber);
+                }
+            }
+        }
+        touched.forEach(this::schedule);
+    }
+
+    @Scheduled(fixedDelayString = "${uums.traffic.stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        subscribers.values().forEach(serviceSubscribers -> serviceSubscribers.forEach(subscriber -> {
+            subscriber.requestHeartbeat();
+            schedule(subscriber);
+        }));
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(serviceSubscribers -> serviceSubscribers.forEach(TrafficStreamSubscriber::complete));
+        subscribers.clear();
+    }
+
+    private void schedule(TrafficStreamSubscriber subscriber) {
+        if (!subscriber.hasPendingWork() || !subscriber.markScheduled()) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                subscriber.drain();
+                // an event enqueued between the last poll and clearing the flag must not be stranded
+                if (subscriber.hasPendingWork()) {
+                    schedule(subscriber);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            subscriber.complete();
+        }
+    }
+
+    private void unsubscribe(Long serviceId, TrafficStreamSubscriber subscriber) {
+        Set<TrafficStreamSubscriber> serviceSubscribers = subscribers.get(serviceId);
+        if (serviceSubscribers != null && serviceSubscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            if (serviceSubscribers.isEmpty()) {
+                subscribers.remove(serviceId, serviceSubscribers);
+            }
+        }
+    }
+}
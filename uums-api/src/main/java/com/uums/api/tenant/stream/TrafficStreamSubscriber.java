@@ -0,0 +1,96 @@
+package com.uums.api.tenant.stream;
+
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class TrafficStreamSubscriber {
+
+    private final SseEmitter emitter;
+    private final String apiName;
+    private final String status;
+    private final int capacity;
+    private final ArrayDeque<ServiceTrafficEventResponse> buffer;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private long dropped;
+    private boolean heartbeatDue;
+    private volatile boolean closed;
+
+    TrafficStreamSubscriber(SseEmitter emitter, String apiName, String status, int capacity) {
+        this.emitter = emitter;
+        this.apiName = apiName;
+        this.status = status;
+        this.capacity = capacity;
+        this.buffer = new ArrayDeque<>(capacity);
+    }
+
+    boolean matches(ServiceTrafficEventResponse event) {
+        return (apiName == null || apiName.equals(event.apiName()))
+                && (status == null || status.equals(event.status()));
+    }
+
+    synchronized void enqueue(ServiceTrafficEventResponse event) {
+        if (closed) {
+            return;
+        }
+        if (buffer.size() == capacity) {
+            buffer.pollFirst();
+            dropped++;
+        }
+        buffer.addLast(event);
+    }
+
+    synchronized void requestHeartbeat() {
+        heartbeatDue = true;
+    }
+
+    synchronized boolean hasPendingWork() {
+        return !closed && (!buffer.isEmpty() || heartbeatDue);
+    }
+
+    boolean markScheduled() {
+        return scheduled.compareAndSet(false, true);
+    }
+
+    void drain() {
+        try {
+            while (!closed) {
+                SseEmitter.SseEventBuilder next = nextEvent();
+                if (next == null) {
+                    return;
+                }
+                emitter.send(next);
+            }
+        } catch (IOException | IllegalStateException ex) {
+            complete();
+        } finally {
+            scheduled.set(false);
+        }
+    }
+
+    void complete() {
+        closed = true;
+        emitter.complete();
+    }
+
+    private synchronized SseEmitter.SseEventBuilder nextEvent() {
+        if (dropped > 0) {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name("dropped").data(Map.of("count", dropped));
+            dropped = 0;
+            return event;
+        }
+        ServiceTrafficEventResponse traffic = buffer.pollFirst();
+        if (traffic != null) {
+            heartbeatDue = false;
+            return SseEmitter.event().name("traffic").id(String.valueOf(traffic.id())).data(traffic);
+        }
+        if (heartbeatDue) {
+            heartbeatDue = false;
+            return SseEmitter.event().comment("heartbeat");
+        }
+        return null;
+    }
+}
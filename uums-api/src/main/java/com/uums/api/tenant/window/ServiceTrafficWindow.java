@@ -0,0 +1,85 @@
+package com.uums.api.tenant.window;
+
+import com.uums.api.tenant.TrafficEventQuery;
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ring buffer of the most recent events of one service. Every event of the service with an event time
+ * after {@code completeAfter} is guaranteed to be in the ring: it starts at the moment the window was
+ * created and moves forward past each event that is overwritten.
+ */
+class ServiceTrafficWindow {
+
+    private static final Comparator<ServiceTrafficEventResponse> NEWEST_FIRST = Comparator
+            .comparing(ServiceTrafficEventResponse::eventTime)
+            .thenComparing(ServiceTrafficEventResponse::id)
+            .reversed();
+
+    private final ServiceTrafficEventResponse[] ring;
+    private int next;
+    private int size;
+    private LocalDateTime completeAfter;
+
+    ServiceTrafficWindow(int capacity, LocalDateTime createdAt) {
+        this.ring = new ServiceTrafficEventResponse[capacity];
+        this.completeAfter = createdAt;
+    }
+
+    synchronized void add(ServiceTrafficEventResponse event) {
+        ServiceTrafficEventResponse evicted = ring[next];
+        if (evicted != null && evicted.eventTime().isAfter(completeAfter)) {
+            completeAfter = evicted.eventTime();
+        }
+        ring[next] = event;
+        next = (next + 1) % ring.length;
+        size = Math.min(size + 1, ring.length);
+    }
+
+    /**
+     * Answers the query if the window is provably complete for it: either {@code limit} matching rows
+     * newer than {@code completeAfter} exist, or the query's lower time bound lies inside the window.
+     */
+    Optional<List<ServiceTrafficEventResponse>> find(TrafficEventQuery query, int limit) {
+        List<ServiceTrafficEventResponse> matches = new ArrayList<>();
+        LocalDateTime boundary;
+        synchronized (this) {
+            boundary = completeAfter;
+            for (int i = 0; i < size; i++) {
+                ServiceTrafficEventResponse event = ring[i];
+                if (event.eventTime().isAfter(boundary) && matches(event, query)) {
+                    matches.add(event);
+                }
+            }
+        }
+        if (matches.size() < limit && (query.from() == null || !query.from().isAfter(boundary))) {
+            return Optional.empty();
+        }
+        matches.sort(NEWEST_FIRST);
+        return Optional.of(matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches);
+    }
+
+    private static boolean matches(ServiceTrafficEventResponse event, TrafficEventQuery query) {
+        if (query.apiName() != null && !query.apiName().equals(event.apiName())) {
+            return false;
+        }
+        if (query.status() != null && !query.status().equals(event.status())) {
+            return false;
+        }
+        if (query.from() != null && event.eventTime().isBefore(query.from())) {
+            return false;
+        }
+        if (query.to() != null && !event.eventTime().isBefore(query.to())) {
+            return false;
+        }
+        if (query.cursorTime() != null) {
+            int byTime = event.eventTime().compareTo(query.cursorTime());
+            return byTime < 0 || (byTime == 0 && event.id() < query.cursorId());
+        }
+        return true;
+    }
+}
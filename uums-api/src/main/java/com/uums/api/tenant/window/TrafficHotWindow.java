@@ -0,0 +1,95 @@
+package com.uums.api.tenant.window;
+
+import com.uums.api.metrics.MetricsSource;
+import com.uums.api.tenant.TrafficEventQuery;
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import com.uums.api.tenant.ingest.TrafficEventListener;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the most recent events of each active service in memory so that listings of the last few
+ * minutes never reach the database. Memory is bounded by {@code max-events}: at most
+ * {@code max-events / per-service-capacity} services hold a window, least recently used first out.
+ * <p>
+ * The window only sees events ingested by this node, yet it answers a listing as complete. It is
+ * therefore off by default and must only be enabled where a single node ingests all traffic; with several
+ * ingesting replicas, listings have to come from the database.
+ */
+@Component
+public class TrafficHotWindow implements TrafficEventListener, MetricsSource {
+
+    private final boolean enabled;
+    private final int perServiceCapacity;
+    private final Map<Long, ServiceTrafficWindow> windows;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TrafficHotWindow(
+            @Value("${uums.traffic.window.enabled:false}") boolean enabled,
+            @Value("${uums.traffic.window.per-service-capacity:1000}") int perServiceCapacity,
+            @Value("${uums.traffic.window.max-events:200000}") int maxEvents) {
+        this.enabled = enabled;
+        this.perServiceCapacity = perServiceCapacity;
+        int maxServices = Math.max(1, maxEvents / perServiceCapacity);
+        this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ServiceTrafficWindow> eldest) {
+                if (size() > maxServices) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void onTrafficEvents(List<ServiceTrafficEventResponse> events) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (ServiceTrafficEventResponse event : events) {
+            ServiceTrafficWindow window;
+            synchronized (windows) {
+                window = windows.computeIfAbsent(event.serviceId(), id -> new ServiceTrafficWindow(perServiceCapacity, now));
+            }
+            window.add(event);
+        }
+    }
+
+    public Optional<List<ServiceTrafficEventResponse>> find(TrafficEventQuery query, int limit) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        ServiceTrafficWindow window;
+        synchronized (windows) {
+            window = windows.get(query.serviceId());
+        }
+        Optional<List<ServiceTrafficEventResponse>> result =
+                window == null ? Optional.empty() : window.find(query, limit);
+        (result.isPresent() ? hits : misses).increment();
+        return result;
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        int services;
+        synchronized (windows) {
+            services = windows.size();
+        }
+        return Map.of(
+                "traffic.window.hits", hits.sum(),
+                "traffic.window.misses", misses.sum(),
+                "traffic.window.evictions", evictions.sum(),
+                "traffic.window.services", services);
+    }
+}
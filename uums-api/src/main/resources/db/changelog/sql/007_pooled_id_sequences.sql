@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset uums:007-create-id-sequences
+CREATE SEQUENCE IF NOT EXISTS uums_user_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS service_api_key_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS service_traffic_event_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS service_stat_snapshot_seq START WITH 1000 INCREMENT BY 50;
+
+--changeset uums:007-align-id-sequences dbms:postgresql
+SELECT setval('uums_user_seq', GREATEST(1000, (SELECT COALESCE(MAX(id), 0) FROM uums_user) + 50));
+SELECT setval('service_api_key_seq', GREATEST(1000, (SELECT COALESCE(MAX(id), 0) FROM service_api_key) + 50));
+SELECT setval('service_traffic_event_seq', GREATEST(1000, (SELECT COALESCE(MAX(id), 0) FROM service_traffic_event) + 50));
+SELECT setval('service_stat_snapshot_seq', GREATEST(1000, (SELECT COALESCE(MAX(id), 0) FROM service_stat_snapshot) + 50));
+
+--changeset uums:007-default-ids-from-sequences dbms:postgresql
+ALTER TABLE uums_user ALTER COLUMN id SET DEFAULT nextval('uums_user_seq');
+ALTER TABLE service_api_key ALTER COLUMN id SET DEFAULT nextval('service_api_key_seq');
+ALTER TABLE service_traffic_event ALTER COLUMN id SET DEFAULT nextval('service_traffic_event_seq');
+ALTER TABLE service_stat_snapshot ALTER COLUMN id SET DEFAULT nextval('service_stat_snapshot_seq');
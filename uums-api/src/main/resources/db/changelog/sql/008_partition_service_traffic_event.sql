@@ -0,0 +1,32 @@
+--liquibase formatted sql
+
+--changeset uums:008-partition-service-traffic-event dbms:postgresql splitStatements:false
+DO $$
+DECLARE
+    history_end TIMESTAMP := date_trunc('day', LOCALTIMESTAMP);
+BEGIN
+    ALTER TABLE service_traffic_event RENAME TO service_traffic_event_legacy;
+
+    CREATE TABLE service_traffic_event (
+        id BIGINT NOT NULL DEFAULT nextval('service_traffic_event_seq'),
+        service_id BIGINT NOT NULL,
+        api_name VARCHAR(160) NOT NULL,
+        input_payload TEXT NOT NULL,
+        status VARCHAR(40) NOT NULL,
+        event_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        CONSTRAINT pk_service_traffic_event PRIMARY KEY (id, event_time),
+        CONSTRAINT fk_service_traffic_event_service FOREIGN KEY (service_id) REFERENCES service_application (id)
+    ) PARTITION BY RANGE (event_time);
+
+    CREATE TABLE service_traffic_event_default PARTITION OF service_traffic_event DEFAULT;
+
+    EXECUTE format(
+        'CREATE TABLE service_traffic_event_history PARTITION OF service_traffic_event FOR VALUES FROM (MINVALUE) TO (%L)',
+        history_end);
+
+    INSERT INTO service_traffic_event (id, service_id, api_name, input_payload, status, event_time)
+    SELECT id, service_id, api_name, input_payload, status, event_time
+    FROM service_traffic_event_legacy;
+
+    DROP TABLE service_traffic_event_legacy;
+END $$;
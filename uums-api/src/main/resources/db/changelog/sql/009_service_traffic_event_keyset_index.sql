@@ -0,0 +1,5 @@
+--liquibase formatted sql
+
+--changeset uums:009-index-service-traffic-event-keyset
+CREATE INDEX IF NOT EXISTS idx_service_traffic_event_keyset
+    ON service_traffic_event (service_id, event_time DESC, id DESC);
@@ -0,0 +1,4 @@
+--liquibase formatted sql
+
+--changeset uums:010-add-service-traffic-event-latency
+ALTER TABLE service_traffic_event ADD COLUMN IF NOT EXISTS latency_ms BIGINT;
@@ -0,0 +1,17 @@
+--liquibase formatted sql
+
+--changeset uums:011-add-service-traffic-event-caller-id
+ALTER TABLE service_traffic_event ADD COLUMN IF NOT EXISTS caller_id VARCHAR(120);
+
+--changeset uums:011-create-service-traffic-sketch
+CREATE TABLE IF NOT EXISTS service_traffic_sketch (
+    service_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    node_id VARCHAR(120) NOT NULL,
+    payload BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_service_traffic_sketch PRIMARY KEY (service_id, bucket_start, node_id),
+    CONSTRAINT fk_service_traffic_sketch_service FOREIGN KEY (service_id) REFERENCES service_application (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_service_traffic_sketch_bucket_start ON service_traffic_sketch (bucket_start);
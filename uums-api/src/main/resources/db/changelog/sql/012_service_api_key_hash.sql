@@ -0,0 +1,14 @@
+--liquibase formatted sql
+
+--changeset uums:012-add-service-api-key-hash
+ALTER TABLE service_api_key ADD COLUMN IF NOT EXISTS api_key_hash VARCHAR(64);
+
+--changeset uums:012-backfill-service-api-key-hash-postgres dbms:postgresql
+UPDATE service_api_key SET api_key_hash = encode(sha256(convert_to(api_key, 'UTF8')), 'hex') WHERE api_key_hash IS NULL;
+
+--changeset uums:012-backfill-service-api-key-hash-h2 dbms:h2
+UPDATE service_api_key SET api_key_hash = LOWER(RAWTOHEX(HASH('SHA-256', api_key))) WHERE api_key_hash IS NULL;
+
+--changeset uums:012-index-service-api-key-hash
+ALTER TABLE service_api_key ALTER COLUMN api_key_hash SET NOT NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_service_api_key_hash ON service_api_key (api_key_hash);
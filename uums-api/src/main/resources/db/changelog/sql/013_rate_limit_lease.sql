@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset uums:013-create-rate-limit-lease
+CREATE TABLE IF NOT EXISTS rate_limit_lease (
+    bucket_key VARCHAR(200) NOT NULL,
+    window_start_ms BIGINT NOT NULL,
+    tokens_granted BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_rate_limit_lease PRIMARY KEY (bucket_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_lease_window_start ON rate_limit_lease (window_start_ms);
@@ -0,0 +1,13 @@
+--liquibase formatted sql
+
+--changeset uums:014-create-auth-challenge
+CREATE TABLE IF NOT EXISTS auth_challenge (
+    challenge_id VARCHAR(64) NOT NULL,
+    purpose VARCHAR(20) NOT NULL,
+    username VARCHAR(120) NOT NULL,
+    otp_hash VARCHAR(64) NOT NULL,
+    expires_at_ms BIGINT NOT NULL,
+    CONSTRAINT pk_auth_challenge PRIMARY KEY (challenge_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_auth_challenge_expires_at ON auth_challenge (expires_at_ms);
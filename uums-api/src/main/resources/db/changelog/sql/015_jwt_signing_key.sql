@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset uums:015-create-jwt-signing-key
+CREATE TABLE IF NOT EXISTS jwt_signing_key (
+    kid VARCHAR(64) NOT NULL,
+    algorithm VARCHAR(16) NOT NULL,
+    public_key VARCHAR(512) NOT NULL,
+    private_key_sealed VARCHAR(1024) NOT NULL,
+    created_at_ms BIGINT NOT NULL,
+    CONSTRAINT pk_jwt_signing_key PRIMARY KEY (kid)
+);
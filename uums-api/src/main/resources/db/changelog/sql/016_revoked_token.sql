@@ -0,0 +1,13 @@
+--liquibase formatted sql
+
+--changeset uums:016-create-revoked-token
+CREATE TABLE IF NOT EXISTS revoked_token (
+    token_id VARCHAR(64) NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    expires_at_ms BIGINT NOT NULL,
+    revoked_at_ms BIGINT NOT NULL,
+    CONSTRAINT pk_revoked_token PRIMARY KEY (token_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_token_kind_revoked_at ON revoked_token (kind, revoked_at_ms);
+CREATE INDEX IF NOT EXISTS idx_revoked_token_expires_at ON revoked_token (expires_at_ms);
@@ -0,0 +1,10 @@
+--liquibase formatted sql
+
+--changeset uums:017-create-service-stat-delta
+CREATE TABLE IF NOT EXISTS service_stat_delta (
+    id BIGSERIAL PRIMARY KEY,
+    service_id BIGINT NOT NULL,
+    stat_code VARCHAR(80) NOT NULL,
+    delta BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
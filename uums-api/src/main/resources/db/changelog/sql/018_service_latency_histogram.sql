@@ -0,0 +1,17 @@
+--liquibase formatted sql
+
+--changeset uums:018-create-service-latency-histogram
+CREATE TABLE IF NOT EXISTS service_latency_histogram (
+    service_id BIGINT NOT NULL,
+    api_name VARCHAR(160) NOT NULL,
+    granularity VARCHAR(8) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    node_id VARCHAR(120) NOT NULL,
+    payload BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_service_latency_histogram PRIMARY KEY (service_id, api_name, granularity, bucket_start, node_id),
+    CONSTRAINT fk_service_latency_histogram_service FOREIGN KEY (service_id) REFERENCES service_application (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_service_latency_histogram_bucket_start
+    ON service_latency_histogram (granularity, bucket_start);
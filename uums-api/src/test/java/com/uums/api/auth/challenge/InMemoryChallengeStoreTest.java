@@ -0,0 +1,62 @@
+package com.uums.api.auth.challenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+class InMemoryChallengeStoreTest {
+
+    @Test
+    void findShouldMatchPurposeAndOtp() {
+        InMemoryChallengeStore store = new InMemoryChallengeStore(10, 1000, 16);
+        String challengeId = store.issue(ChallengePurpose.MFA, "alice", "123456", 60);
+
+        Challenge challenge = store.find(challengeId, ChallengePurpose.MFA).orElseThrow();
+        assertEquals("alice", challenge.username());
+        assertTrue(challenge.otpMatches("123456"));
+        assertFalse(challenge.otpMatches("654321"));
+        assertTrue(store.find(challengeId, ChallengePurpose.RECOVERY).isEmpty());
+    }
+
+    @Test
+    void removeShouldSucceedOnlyOnce() {
+        InMemoryChallengeStore store = new InMemoryChallengeStore(10, 1000, 16);
+        String challengeId = store.issue(ChallengePurpose.MFA, "alice", "123456", 60);
+
+        assertTrue(store.remove(challengeId));
+        assertFalse(store.remove(challengeId));
+        assertEquals(0, store.metrics().get("auth.challenges.live").intValue());
+    }
+
+    @Test
+    void advanceShouldEvictOnlyExpiredChallenges() {
+        InMemoryChallengeStore store = new InMemoryChallengeStore(10, 1000, 4);
+        long now = System.currentTimeMillis();
+        store.save(new Challenge("short", ChallengePurpose.MFA, "alice", "hash", now + 2_000));
+        store.save(new Challenge("long", ChallengePurpose.MFA, "bob", "hash", now + 30_000));
+
+        store.advance(now + 3_000);
+        assertEquals(1, store.metrics().get("auth.challenges.live").intValue());
+        assertEquals(1L, store.metrics().get("auth.challenges.expired").longValue());
+
+        store.advance(now + 31_000);
+        assertEquals(0, store.metrics().get("auth.challenges.live").intValue());
+        assertEquals(2L, store.metrics().get("auth.challenges.expired").longValue());
+    }
+
+    @Test
+    void saveShouldRejectWhenFull() {
+        InMemoryChallengeStore store = new InMemoryChallengeStore(2, 1000, 16);
+        String first = store.issue(ChallengePurpose.MFA, "alice", "111111", 60);
+        store.issue(ChallengePurpose.MFA, "alice", "222222", 60);
+
+        assertThrows(ResponseStatusException.class, () -> store.issue(ChallengePurpose.MFA, "alice", "333333", 60));
+        assertEquals(1L, store.metrics().get("auth.challenges.rejected").longValue());
+        assertTrue(store.remove(first));
+        store.issue(ChallengePurpose.MFA, "alice", "333333", 60);
+    }
+}
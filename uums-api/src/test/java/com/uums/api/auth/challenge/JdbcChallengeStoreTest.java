@@ -0,0 +1,64 @@
+package com.uums.api.auth.challenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+class JdbcChallengeStoreTest {
+
+    @Test
+    void issueShouldRejectFromPurgedCountWithoutCountingTheTable() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM auth_challenge", Long.class)).thenReturn(1L);
+        JdbcChallengeStore store = new JdbcChallengeStore(jdbcTemplate, 2);
+        store.purge();
+
+        store.issue(ChallengePurpose.MFA, "alice", "123456", 60);
+        assertThrows(ResponseStatusException.class, () -> store.issue(ChallengePurpose.MFA, "bob", "123456", 60));
+
+        verify(jdbcTemplate, times(1)).update(startsWith("INSERT INTO auth_challenge"), any(Object[].class));
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class));
+        assertEquals(2, store.metrics().get("auth.challenges.live").intValue());
+        assertEquals(1, store.metrics().get("auth.challenges.rejected").intValue());
+    }
+
+    @Test
+    void removeShouldFreeRoomForAnotherChallenge() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(startsWith("DELETE FROM auth_challenge WHERE challenge_id"), anyString(), anyLong()))
+                .thenReturn(1);
+        JdbcChallengeStore store = new JdbcChallengeStore(jdbcTemplate, 1);
+
+        String challengeId = store.issue(ChallengePurpose.RECOVERY, "alice", "123456", 60);
+        store.remove(challengeId);
+        store.issue(ChallengePurpose.RECOVERY, "alice", "654321", 60);
+
+        assertEquals(1, store.metrics().get("auth.challenges.live").intValue());
+    }
+
+    @Test
+    void failedInsertShouldNotHoldASlot() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(startsWith("INSERT INTO auth_challenge"), any(Object[].class)))
+                .thenThrow(new IllegalStateException("connection lost"));
+        JdbcChallengeStore store = new JdbcChallengeStore(jdbcTemplate, 1);
+
+        assertThrows(IllegalStateException.class, () -> store.issue(ChallengePurpose.MFA, "alice", "123456", 60));
+
+        assertEquals(0, store.metrics().get("auth.challenges.live").intValue());
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class));
+    }
+}
@@ -0,0 +1,65 @@
+package com.uums.api.auth.challenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class StatelessChallengeStoreTest {
+
+    private static final String SECRET = "ReplaceThisWithAtLeast32CharSecretKey123456";
+
+    @Test
+    void tokenShouldOpenOnAnyNodeSharingTheSecret() {
+        StatelessChallengeStore issuer = store(SECRET);
+        StatelessChallengeStore verifier = store(SECRET);
+
+        String token = issuer.issue(ChallengePurpose.MFA, "alice", "123456", 60);
+        Challenge challenge = verifier.find(token, ChallengePurpose.MFA).orElseThrow();
+
+        assertEquals("alice", challenge.username());
+        assertTrue(challenge.otpMatches("123456"));
+        assertFalse(challenge.otpMatches("654321"));
+        assertFalse(token.contains("alice"));
+        assertTrue(verifier.find(token, ChallengePurpose.RECOVERY).isEmpty());
+    }
+
+    @Test
+    void tamperedOrForeignTokensShouldBeRejected() {
+        StatelessChallengeStore store = store(SECRET);
+        String token = store.issue(ChallengePurpose.RECOVERY, "alice", "123456", 60);
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+
+        assertNotEquals(token, tampered);
+        assertTrue(store.find(tampered, ChallengePurpose.RECOVERY).isEmpty());
+        assertTrue(store.find("not-a-token", ChallengePurpose.RECOVERY).isEmpty());
+        assertTrue(store(SECRET + "-other").find(token, ChallengePurpose.RECOVERY).isEmpty());
+        assertEquals(2L, store.metrics().get("auth.challenges.invalid-tokens").longValue());
+    }
+
+    @Test
+    void tokenShouldBeConsumedOnlyOnce() {
+        StatelessChallengeStore store = store(SECRET);
+        String token = store.issue(ChallengePurpose.MFA, "alice", "123456", 60);
+
+        assertTrue(store.remove(token));
+        assertFalse(store.remove(token));
+        assertEquals(1L, store.metrics().get("auth.challenges.replays").longValue());
+    }
+
+    @Test
+    void expiredTokenShouldNotVerify() {
+        StatelessChallengeStore store = store(SECRET);
+        String token = store.issue(ChallengePurpose.MFA, "alice", "123456", 0);
+
+        assertTrue(store.find(token, ChallengePurpose.MFA).isEmpty());
+        assertFalse(store.remove(token));
+    }
+
+    private static StatelessChallengeStore store(String secret) {
+        return new StatelessChallengeStore(secret, new InMemoryChallengeStore(100, 1000, 16));
+    }
+}
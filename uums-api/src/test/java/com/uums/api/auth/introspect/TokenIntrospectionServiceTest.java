@@ -0,0 +1,102 @@
+package com.uums.api.auth.introspect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.uums.api.auth.AuthException;
+import com.uums.api.auth.dto.introspect.IntrospectionResponse;
+import com.uums.api.security.JwtService;
+import com.uums.api.security.revocation.TokenRevocationService;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TokenIntrospectionServiceTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private TokenRevocationService revocationService;
+
+    private TokenIntrospectionService introspectionService;
+
+    @BeforeEach
+    void setUp() {
+        introspectionService = new TokenIntrospectionService(jwtService, revocationService, 3);
+    }
+
+    @Test
+    void validTokenShouldBeActiveWithClaims() {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        when(jwtService.parseClaims("valid")).thenReturn(Jwts.claims()
+                .subject("test_user_01")
+                .add("typ", "access")
+                .add("roles", List.of("ROLE_USER"))
+                .expiration(Date.from(expiresAt))
+                .build());
+
+        IntrospectionResponse response = introspectionService.introspect("valid");
+
+        assertTrue(response.active());
+        assertEquals("test_user_01", response.sub());
+        assertEquals("access", response.tokenType());
+        assertEquals(expiresAt.getEpochSecond(), response.exp());
+        assertEquals(List.of("ROLE_USER"), response.roles());
+    }
+
+    @Test
+    void tokenOfRevokedSessionShouldBeInactive() {
+        when(jwtService.parseClaims("revoked")).thenReturn(Jwts.claims().subject("test_user_01").add("sid", "s1").build());
+        when(revocationService.isSessionRevoked("s1")).thenReturn(true);
+
+        assertFalse(introspectionService.introspect("revoked").active());
+    }
+
+    @Test
+    void rotatedRefreshTokenShouldBeInactive() {
+        when(jwtService.parseClaims("rotated")).thenReturn(Jwts.claims()
+                .subject("test_user_01").id("j1").add("sid", "s1").add("typ", "refresh").build());
+        when(jwtService.parseClaims("current")).thenReturn(Jwts.claims()
+                .subject("test_user_01").id("j2").add("sid", "s1").add("typ", "refresh").build());
+        when(revocationService.isRefreshTokenConsumed("j1")).thenReturn(true);
+
+        assertFalse(introspectionService.introspect("rotated").active());
+        assertTrue(introspectionService.introspect("current").active());
+    }
+
+    @Test
+    void invalidTokenShouldBeInactiveWithoutDetails() {
+        when(jwtService.parseClaims("expired")).thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+        IntrospectionResponse response = introspectionService.introspect("expired");
+
+        assertFalse(response.active());
+        assertNull(response.sub());
+    }
+
+    @Test
+    void batchShouldAnswerInOrderAndEnforceLimit() {
+        when(jwtService.parseClaims("valid")).thenReturn(Jwts.claims().subject("test_user_01").build());
+        when(jwtService.parseClaims("bad")).thenThrow(new IllegalArgumentException("malformed"));
+
+        var results = introspectionService.introspectAll(List.of("bad", "valid")).results();
+
+        assertEquals(List.of(false, true), results.stream().map(IntrospectionResponse::active).toList());
+        assertThrows(AuthException.class,
+                () -> introspectionService.introspectAll(Collections.nCopies(4, "valid")));
+    }
+}
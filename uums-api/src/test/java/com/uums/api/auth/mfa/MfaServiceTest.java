@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import com.uums.api.auth.AuthException;
+import com.uums.api.auth.challenge.InMemoryChallengeStore;
 import com.uums.api.auth.dto.AuthResponse;
 import com.uums.api.auth.dto.mfa.MfaChallengeRequest;
 import com.uums.api.auth.dto.mfa.MfaVerifyRequest;
@@ -28,7 +29,7 @@ class MfaServiceTest {
 
     @BeforeEach
     void setUp() {
-        mfaService = new MfaService(authService, 300);
+        mfaService = new MfaService(authService, new InMemoryChallengeStore(100, 1000, 64), 300);
     }
 
     @Test
@@ -47,6 +48,8 @@ class MfaServiceTest {
 
         assertEquals("access", response.accessToken());
         assertEquals("refresh", response.refreshToken());
+        assertThrows(AuthException.class,
+                () -> mfaService.verifyChallenge(new MfaVerifyRequest(challenge.challengeId(), challenge.debugOtp())));
     }
 
     @Test
@@ -3,14 +3,18 @@ package com.uums.api.auth.recovery;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.uums.api.auth.AuthException;
+import com.uums.api.auth.challenge.InMemoryChallengeStore;
 import com.uums.api.auth.dto.recovery.RecoveryChallengeRequest;
 import com.uums.api.auth.dto.recovery.RecoveryResetRequest;
 import com.uums.api.auth.dto.recovery.RecoverySetupRequest;
 import com.uums.api.domain.User;
 import com.uums.api.repository.UserRepository;
+import com.uums.api.security.PasswordHashingSaturatedException;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +22,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class AccountRecoveryServiceTest {
@@ -28,11 +33,15 @@ class AccountRecoveryServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private AccountRecoveryService accountRecoveryService;
 
     @BeforeEach
     void setUp() {
-        accountRecoveryService = new AccountRecoveryService(userRepository, passwordEncoder, 300);
+        accountRecoveryService = new AccountRecoveryService(
+                userRepository, passwordEncoder, new InMemoryChallengeStore(100, 1000, 64), 300, transactionManager);
     }
 
     @Test
@@ -71,4 +80,29 @@ class AccountRecoveryServiceTest {
         assertThrows(AuthException.class,
                 () -> accountRecoveryService.initiateRecovery(new RecoveryChallengeRequest("test_user_01", "Wrong")));
     }
+
+    @Test
+    void resetPasswordShouldKeepChallengeWhenHashingIsSaturated() {
+        User user = new User();
+        user.setUsername("test_user_01");
+        user.setEmail("test@uums.local");
+        user.setSecurityQuestion("Pet name?");
+        user.setSecurityAnswerHash("hashed-answer");
+
+        when(userRepository.findByUsername("test_user_01")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("Shadow", "hashed-answer")).thenReturn(true);
+        when(passwordEncoder.encode("NewStrong@1234"))
+                .thenThrow(new PasswordHashingSaturatedException("Password hashing is saturated", 1))
+                .thenReturn("new-password-hash");
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var challenge = accountRecoveryService.initiateRecovery(new RecoveryChallengeRequest("test_user_01", "Shadow"));
+        var reset = new RecoveryResetRequest(challenge.challengeId(), challenge.debugOtp(), "NewStrong@1234");
+
+        assertThrows(PasswordHashingSaturatedException.class, () -> accountRecoveryService.resetPassword(reset));
+        verify(userRepository, never()).save(any(User.class));
+
+        accountRecoveryService.resetPassword(reset);
+        assertEquals("new-password-hash", user.getPasswordHash());
+    }
 }
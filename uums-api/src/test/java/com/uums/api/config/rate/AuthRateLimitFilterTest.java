@@ -0,0 +1,95 @@
+package com.uums.api.config.rate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuthRateLimitFilterTest {
+
+    @Mock
+    private ClusterRateLimiter clusterRateLimiter;
+
+    private AuthRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        when(clusterRateLimiter.tryAcquire(anyString(), anyInt(), anyLong())).thenReturn(true);
+        filter = new AuthRateLimitFilter(new ObjectMapper(), clusterRateLimiter, 100, 2, 60, 1000);
+    }
+
+    @Test
+    void usernameShouldBeLimitedAcrossAddressesAndEndpoints() throws Exception {
+        assertEquals(200, post("/api/v1/auth/login", "10.0.0.1", "{\"username\":\"alice\",\"password\":\"x\"}"));
+        assertEquals(200, post("/api/v1/auth/mfa/challenge", "10.0.0.2", "{\"username\":\"Alice\",\"password\":\"x\"}"));
+        assertEquals(429, post("/api/v1/auth/login", "10.0.0.3", "{\"username\":\"alice\",\"password\":\"x\"}"));
+        assertEquals(200, post("/api/v1/auth/login", "10.0.0.3", "{\"username\":\"bob\",\"password\":\"x\"}"));
+    }
+
+    @Test
+    void addressShouldBeLimitedAcrossUsernames() throws Exception {
+        filter = new AuthRateLimitFilter(new ObjectMapper(), clusterRateLimiter, 2, 100, 60, 1000);
+
+        assertEquals(200, post("/api/v1/auth/login", "10.0.0.1", "{\"username\":\"alice\",\"password\":\"x\"}"));
+        assertEquals(200, post("/api/v1/auth/recovery/challenge", "10.0.0.1", "{\"username\":\"bob\"}"));
+        assertEquals(429, post("/api/v1/auth/refresh", "10.0.0.1", "{\"refreshToken\":\"t\"}"));
+    }
+
+    @Test
+    void firstRequestFromAnAddressShouldNotConsultTheClusterLimiter() throws Exception {
+        assertEquals(200, post("/api/v1/auth/login", "10.0.0.1", "{\"username\":\"alice\",\"password\":\"x\"}"));
+        verify(clusterRateLimiter, never()).tryAcquire(anyString(), anyInt(), anyLong());
+
+        assertEquals(200, post("/api/v1/auth/login", "10.0.0.1", "{\"username\":\"bob\",\"password\":\"x\"}"));
+        verify(clusterRateLimiter).tryAcquire("auth-ip:10.0.0.1", 100, 60);
+    }
+
+    @Test
+    void bodyShouldStillReachTheEndpoint() throws Exception {
+        MockHttpServletRequest request = request("/api/v1/auth/mfa/verify", "10.0.0.1",
+                "{\"challengeId\":\"c-1\",\"otp\":\"123456\"}");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals("{\"challengeId\":\"c-1\",\"otp\":\"123456\"}",
+                new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void oversizedBodyShouldBeRefused() throws Exception {
+        assertEquals(413, post("/api/v1/auth/login", "10.0.0.1", "{\"username\":\"" + "a".repeat(20_000) + "\"}"));
+    }
+
+    private int post(String uri, String address, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(uri, address, body), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(String uri, String address, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr(address);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
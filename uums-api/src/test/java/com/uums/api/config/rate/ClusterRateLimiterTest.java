@@ -0,0 +1,96 @@
+package com.uums.api.config.rate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterRateLimiterTest {
+
+    @Mock
+    private RateLimitLeaseStore store;
+
+    @Test
+    void disabledLimiterShouldAdmitWithoutTouchingStore() {
+        ClusterRateLimiter limiter = new ClusterRateLimiter(store, false, 0.1, 1, 100);
+
+        assertTrue(limiter.tryAcquire("login:10.0.0.1", 1, 60));
+        assertTrue(limiter.tryAcquire("login:10.0.0.1", 1, 60));
+
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void nodesSharingStoreShouldNotAdmitMoreThanLimit() {
+        AtomicLong handedOut = new AtomicLong();
+        when(store.lease(anyString(), anyLong(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            long chunk = invocation.getArgument(2);
+            long limit = invocation.getArgument(3);
+            long before = handedOut.getAndAdd(chunk);
+            return Math.clamp(limit - before, 0, chunk);
+        });
+        ClusterRateLimiter nodeA = new ClusterRateLimiter(store, true, 0.25, 1, 100);
+        ClusterRateLimiter nodeB = new ClusterRateLimiter(store, true, 0.25, 1, 100);
+
+        int admitted = 0;
+        for (int i = 0; i < 100; i++) {
+            ClusterRateLimiter node = i % 2 == 0 ? nodeA : nodeB;
+            if (node.tryAcquire("service:7", 20, 3600)) {
+                admitted++;
+            }
+        }
+
+        assertTrue(admitted > 0 && admitted <= 20, "admitted " + admitted);
+    }
+
+    @Test
+    void smallLimitsShouldLeaseAtLeastTheMinimumChunk() {
+        when(store.lease(anyString(), anyLong(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> invocation.getArgument(2));
+        ClusterRateLimiter limiter = new ClusterRateLimiter(store, true, 0.1, 10, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("auth-ip:10.0.0.1", 30, 3600));
+        }
+
+        verify(store, times(1)).lease(anyString(), anyLong(), eq(10L), eq(30L));
+    }
+
+    @Test
+    void keysBeyondTheCapShouldBeLeftToLocalLimits() {
+        when(store.lease(anyString(), anyLong(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> invocation.getArgument(2));
+        ClusterRateLimiter limiter = new ClusterRateLimiter(store, true, 0.1, 1, 1);
+
+        assertTrue(limiter.tryAcquire("auth-ip:10.0.0.1", 30, 3600));
+        assertTrue(limiter.tryAcquire("auth-ip:10.0.0.2", 30, 3600));
+
+        verify(store, times(1)).lease(anyString(), anyLong(), anyLong(), anyLong());
+        assertEquals(1L, limiter.metrics().get("rate.cluster.untracked"));
+    }
+
+    @Test
+    void unreachableStoreShouldFallBackToLocalLimit() {
+        when(store.lease(anyString(), anyLong(), anyLong(), anyLong())).thenThrow(new IllegalStateException("db down"));
+        ClusterRateLimiter limiter = new ClusterRateLimiter(store, true, 0.1, 1, 100);
+
+        assertTrue(limiter.tryAcquire("service:7", 3, 3600));
+        assertTrue(limiter.tryAcquire("service:7", 3, 3600));
+        assertTrue(limiter.tryAcquire("service:7", 3, 3600));
+        assertFalse(limiter.tryAcquire("service:7", 3, 3600));
+        assertEquals(1L, limiter.metrics().get("rate.cluster.store-failures"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.uums.api.config.rate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.uums.api.tenant.ApiKeyResolver;
+import com.uums.api.tenant.PricingTier;
+import com.uums.api.tenant.ResolvedApiKey;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceRateLimitFilterTest {
+
+    @Mock
+    private ApiKeyResolver apiKeyResolver;
+
+    @Mock
+    private ClusterRateLimiter clusterRateLimiter;
+
+    private final ServiceRateLimiter rateLimiter = new ServiceRateLimiter();
+
+    private ServiceRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        when(apiKeyResolver.resolve("key-1"))
+                .thenReturn(Optional.of(new ResolvedApiKey(1L, 10L, "default", PricingTier.FREE, 2)));
+        filter = new ServiceRateLimitFilter(apiKeyResolver, rateLimiter, clusterRateLimiter);
+    }
+
+    @Test
+    void clusterRejectionShouldRefundTheLocalSlot() throws Exception {
+        when(clusterRateLimiter.tryAcquire("service:1", 2, 60)).thenReturn(false, true);
+        when(clusterRateLimiter.secondsUntilReset(60)).thenReturn(12L);
+
+        MockHttpServletResponse rejected = call();
+        assertEquals(429, rejected.getStatus());
+        assertEquals("0", rejected.getHeader("RateLimit-Remaining"));
+        assertEquals("12", rejected.getHeader("RateLimit-Reset"));
+        assertEquals("12", rejected.getHeader("Retry-After"));
+
+        MockHttpServletResponse admitted = call();
+        assertEquals(200, admitted.getStatus());
+        assertEquals("1", admitted.getHeader("RateLimit-Remaining"));
+    }
+
+    @Test
+    void localRejectionShouldNotConsultTheCluster() throws Exception {
+        when(clusterRateLimiter.tryAcquire("service:1", 2, 60)).thenReturn(true);
+
+        assertEquals(200, call().getStatus());
+        assertEquals(200, call().getStatus());
+        MockHttpServletResponse rejected = call();
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("0", rejected.getHeader("RateLimit-Remaining"));
+        verify(clusterRateLimiter, times(2)).tryAcquire("service:1", 2, 60);
+    }
+
+    private MockHttpServletResponse call() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/app2app/traffic");
+        request.addHeader(ServiceRateLimitFilter.API_KEY_HEADER, "key-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,61 @@
+package com.uums.api.config.rate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ServiceRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ServiceRateLimiter limiter = new ServiceRateLimiter();
+
+    @Test
+    void shouldAdmitBurstOfLimitThenReject() {
+        for (int i = 0; i < 60; i++) {
+            assertEquals(0, limiter.acquire(1L, 60, 0));
+        }
+
+        long wait = limiter.acquire(1L, 60, 0);
+
+        assertTrue(wait > 0 && wait <= SECOND, "wait " + wait);
+        assertEquals(0, limiter.remaining(1L, 60, 0));
+        assertEquals(60 * SECOND, limiter.resetNanos(1L, 0));
+    }
+
+    @Test
+    void shouldRefillOneRequestPerEmissionInterval() {
+        for (int i = 0; i < 60; i++) {
+            limiter.acquire(1L, 60, 0);
+        }
+
+        assertEquals(0, limiter.acquire(1L, 60, SECOND));
+        assertTrue(limiter.acquire(1L, 60, SECOND) > 0);
+        assertEquals(2, limiter.remaining(1L, 60, 3 * SECOND));
+    }
+
+    @Test
+    void servicesShouldNotShareBudget() {
+        limiter.acquire(1L, 1, 0);
+
+        assertTrue(limiter.acquire(1L, 1, 0) > 0);
+        assertEquals(0, limiter.acquire(2L, 1, 0));
+        assertEquals(1L, limiter.metrics().get("rate.service.rejected"));
+    }
+
+    @Test
+    void refundShouldGiveTheSlotBack() {
+        for (int i = 0; i < 60; i++) {
+            limiter.acquire(1L, 60, 0);
+        }
+
+        limiter.refund(1L, 60);
+
+        assertEquals(1, limiter.remaining(1L, 60, 0));
+        assertEquals(0, limiter.acquire(1L, 60, 0));
+        assertTrue(limiter.acquire(1L, 60, 0) > 0);
+        assertEquals(60L, limiter.metrics().get("rate.service.allowed"));
+    }
+}
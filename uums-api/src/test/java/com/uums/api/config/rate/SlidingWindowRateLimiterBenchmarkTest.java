@@ -0,0 +1,87 @@
+package com.uums.api.config.rate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Contended throughput of the auth limiter: {@code mvn test -Dbenchmark=true
+ * -Dtest=SlidingWindowRateLimiterBenchmarkTest}. Prints checks per second for a few hot keys and for a
+ * key-per-request scan that keeps the sweep busy.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SlidingWindowRateLimiterBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int CHECKS_PER_THREAD = 2_000_000;
+
+    @Test
+    void hotKeys() throws Exception {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(30, 60_000, 100_000);
+        String[] keys = new String[16];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "10.0.0." + i;
+        }
+        report("hot keys", run(thread -> i -> limiter.tryAcquire(keys[(i + thread) & 15], System.currentTimeMillis())));
+    }
+
+    @Test
+    void addressScan() throws Exception {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(30, 60_000, 100_000);
+        String[] keys = new String[1 << 20];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "10." + (i >> 16) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+        }
+        report("address scan", run(thread -> i -> limiter.tryAcquire(
+                keys[(i * THREADS + thread) & (keys.length - 1)], System.currentTimeMillis())));
+        assertTrue(limiter.size() <= 100_000);
+    }
+
+    private static double run(CheckFactory factory) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        LongAdder checks = new LongAdder();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                Check check = factory.forThread(t);
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < CHECKS_PER_THREAD; i++) {
+                        check.run(i);
+                    }
+                    checks.add(CHECKS_PER_THREAD);
+                });
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(5, TimeUnit.MINUTES));
+            return checks.sum() / ((System.nanoTime() - began) / 1e9);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void report(String scenario, double checksPerSecond) {
+        System.out.printf("%s: %,.0f checks/s with %d threads%n", scenario, checksPerSecond, THREADS);
+    }
+
+    private interface CheckFactory {
+        Check forThread(int thread);
+    }
+
+    private interface Check {
+        void run(int i);
+    }
+}
@@ -0,0 +1,118 @@
+package com.uums.api.config.rate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowRateLimiterTest {
+
+    @Test
+    void shouldAdmitUpToLimitWithinWindow() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, 60_000, 100);
+
+        assertTrue(limiter.tryAcquire("10.0.0.1", 0));
+        assertTrue(limiter.tryAcquire("10.0.0.1", 1_000));
+        assertTrue(limiter.tryAcquire("10.0.0.1", 2_000));
+        assertFalse(limiter.tryAcquire("10.0.0.1", 3_000));
+        assertTrue(limiter.tryAcquire("10.0.0.2", 3_000));
+    }
+
+    @Test
+    void previousWindowShouldCountInProportionToOverlap() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, 60_000, 100);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire("10.0.0.1", 59_000);
+        }
+
+        // a fixed window would admit 4 more right at the edge; 3/4 of the previous window still weighs in
+        assertTrue(limiter.tryAcquire("10.0.0.1", 75_000));
+        assertFalse(limiter.tryAcquire("10.0.0.1", 75_000));
+        assertTrue(limiter.tryAcquire("10.0.0.1", 120_000));
+    }
+
+    @Test
+    void trackedKeysShouldStayBounded() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, 60_000, 640);
+
+        for (int i = 0; i < 100_000; i++) {
+            limiter.tryAcquire("10.0." + (i >> 8) + "." + (i & 0xFF), 0);
+        }
+
+        assertTrue(limiter.size() <= 640, "size " + limiter.size());
+    }
+
+    @Test
+    void floodOfFreshKeysShouldNotResetALimitedKey() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, 60_000, 100);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice", 0);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("user-" + i, 1_000);
+        }
+
+        assertFalse(limiter.tryAcquire("alice", 2_000));
+        assertTrue(limiter.size() <= 100, "size " + limiter.size());
+    }
+
+    @Test
+    void leastRecentlyUsedKeyShouldBeEvictedFirst() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(10, 60_000, 8);
+        for (int i = 0; i < 8; i++) {
+            limiter.tryAcquire("k" + i, i);
+        }
+        limiter.tryAcquire("k0", 10);
+
+        limiter.tryAcquire("k8", 11);
+
+        assertEquals(3, limiter.acquire("k0", 12));
+        assertEquals(1, limiter.acquire("k1", 13));
+    }
+
+    @Test
+    void newKeysShouldBeRefusedWhileEveryTrackedKeyIsLimited() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, 60_000, 4);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire("k" + i, 0);
+        }
+
+        assertFalse(limiter.tryAcquire("k4", 1_000));
+        assertFalse(limiter.tryAcquire("k0", 1_000));
+        assertTrue(limiter.tryAcquire("k4", 120_000));
+    }
+
+    @Test
+    void concurrentCallersShouldNeverExceedLimit() throws Exception {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1_000, 60_000, 100);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    int admitted = 0;
+                    for (int i = 0; i < 10_000; i++) {
+                        if (limiter.tryAcquire("shared", 30_000)) {
+                            admitted++;
+                        }
+                    }
+                    return admitted;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            assertEquals(1_000, total);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.uums.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void shouldDelegateEncodeAndMatches() {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(false), 1, 1, 1000);
+
+        assertEquals("hashed:secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "hashed:secret"));
+        assertEquals(2L, encoder.metrics().get("security.password-hash.completed"));
+    }
+
+    @Test
+    void fullQueueShouldRejectImmediately() throws Exception {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(true), 1, 1, 5000);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (encoder.metrics().get("security.password-hash.queue-depth").intValue() == 0) {
+            Thread.onSpinWait();
+        }
+
+        PasswordHashingSaturatedException ex =
+                assertThrows(PasswordHashingSaturatedException.class, () -> encoder.encode("c"));
+
+        assertEquals(1, ex.getRetryAfterSeconds());
+        assertEquals(1L, encoder.metrics().get("security.password-hash.rejected"));
+        release.countDown();
+        assertEquals("hashed:a", running.get(1, TimeUnit.SECONDS));
+        assertEquals("hashed:b", queued.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void slowHashShouldTimeOut() {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(true), 1, 1, 50);
+
+        assertThrows(PasswordHashingSaturatedException.class, () -> encoder.matches("a", "hashed:a"));
+
+        assertEquals(1L, encoder.metrics().get("security.password-hash.timed-out"));
+    }
+
+    private final class BlockingEncoder implements PasswordEncoder {
+
+        private final boolean block;
+
+        private BlockingEncoder(boolean block) {
+            this.block = block;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+
+        private void await() {
+            started.countDown();
+            if (!block) {
+                return;
+            }
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.uums.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private final JwtRoleAuthorities roleAuthorities = new JwtRoleAuthorities();
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new CachingJwtDecoder(delegate, roleAuthorities, jwt -> OAuth2TokenValidatorResult.success(), 2);
+    }
+
+    @Test
+    void repeatedTokenShouldSkipVerification() {
+        Jwt jwt = jwt("a", Instant.now().plusSeconds(60));
+        when(delegate.decode("a")).thenReturn(jwt);
+
+        assertSame(jwt, decoder.decode("a"));
+        assertSame(jwt, decoder.decode("a"));
+
+        verify(delegate, times(1)).decode("a");
+        assertEquals(1L, decoder.metrics().get("security.jwt-cache.hits"));
+        assertEquals(0.5, decoder.metrics().get("security.jwt-cache.hit-rate"));
+    }
+
+    @Test
+    void expiredEntryShouldBeVerifiedAgain() {
+        Jwt jwt = jwt("a", Instant.now().plusMillis(50));
+        when(delegate.decode("a")).thenReturn(jwt).thenThrow(new BadJwtException("expired"));
+
+        decoder.decode("a");
+        await(jwt.getExpiresAt());
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("a"));
+        assertEquals(0, decoder.metrics().get("security.jwt-cache.size"));
+    }
+
+    @Test
+    void cacheShouldStayWithinMaxEntries() {
+        for (String token : List.of("a", "b", "c", "d")) {
+            Jwt jwt = jwt(token, Instant.now().plusSeconds(60));
+            when(delegate.decode(token)).thenReturn(jwt);
+
+            assertSame(jwt, decoder.decode(token));
+        }
+
+        assertTrue(decoder.metrics().get("security.jwt-cache.size").intValue() <= 2);
+    }
+
+    @Test
+    void hitShouldStillBeValidated() {
+        Jwt jwt = jwt("a", Instant.now().plusSeconds(60));
+        when(delegate.decode("a")).thenReturn(jwt);
+        boolean[] revoked = {false};
+        CachingJwtDecoder validating = new CachingJwtDecoder(delegate, roleAuthorities,
+                token -> revoked[0]
+                        ? OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token"))
+                        : OAuth2TokenValidatorResult.success(),
+                2);
+
+        validating.decode("a");
+        revoked[0] = true;
+
+        assertThrows(BadJwtException.class, () -> validating.decode("a"));
+    }
+
+    @Test
+    void sameRoleSetShouldShareAuthorityList() {
+        Jwt first = jwt("a", Instant.now().plusSeconds(60));
+        Jwt second = jwt("b", Instant.now().plusSeconds(60));
+
+        assertSame(roleAuthorities.of(first), roleAuthorities.of(second));
+        assertEquals("ROLE_USER", roleAuthorities.of(first).getFirst().getAuthority());
+    }
+
+    @Test
+    void cachedTokenShouldReuseItsAuthorities() {
+        JwtRoleAuthorities counting = spy(new JwtRoleAuthorities());
+        CachingJwtDecoder cachingDecoder =
+                new CachingJwtDecoder(delegate, counting, jwt -> OAuth2TokenValidatorResult.success(), 2);
+        Jwt jwt = jwt("a", Instant.now().plusSeconds(60));
+        when(delegate.decode("a")).thenReturn(jwt);
+
+        assertEquals("ROLE_USER", cachingDecoder.authoritiesOf(cachingDecoder.decode("a")).getFirst().getAuthority());
+        assertEquals("ROLE_USER", cachingDecoder.authoritiesOf(cachingDecoder.decode("a")).getFirst().getAuthority());
+
+        verify(counting, times(1)).of(jwt);
+    }
+
+    @Test
+    void uncachedTokenShouldResolveAuthoritiesFromItsClaims() {
+        Jwt notCached = jwt("z", Instant.now().plusSeconds(60));
+
+        assertEquals("ROLE_USER", decoder.authoritiesOf(notCached).getFirst().getAuthority());
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "ES256")
+                .subject("alice")
+                .claim("roles", List.of("ROLE_USER"))
+                .issuedAt(expiresAt.minusSeconds(3600))
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private static void await(Instant until) {
+        while (Instant.now().isBefore(until)) {
+            Thread.onSpinWait();
+        }
+    }
+}
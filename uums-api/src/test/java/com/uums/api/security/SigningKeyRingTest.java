@@ -0,0 +1,85 @@
+package com.uums.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SigningKeyRingTest {
+
+    private static final long ROTATION_HOURS = 720;
+    private static final long REFRESH_MS = 60_000;
+    private static final long JWKS_MAX_AGE_SECONDS = 300;
+    private static final long REFRESH_EXPIRATION_SECONDS = 1_209_600;
+    private static final long ACTIVATION_DELAY_MS = JWKS_MAX_AGE_SECONDS * 1000 + 2 * REFRESH_MS;
+
+    @Mock
+    private SigningKeyRepository repository;
+
+    private final List<SigningKey> stored = new ArrayList<>();
+    private SigningKeyRing keyRing;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAll()).thenAnswer(inv -> stored.stream()
+                .sorted(Comparator.comparingLong(SigningKey::createdAtMs).reversed())
+                .toList());
+        doAnswer(inv -> stored.add(inv.getArgument(0))).when(repository).save(any());
+        keyRing = new SigningKeyRing(repository, ROTATION_HOURS, REFRESH_MS, JWKS_MAX_AGE_SECONDS,
+                REFRESH_EXPIRATION_SECONDS);
+    }
+
+    @Test
+    void firstKeyShouldBeGeneratedAndPublished() {
+        SigningKey key = keyRing.signingKey();
+
+        assertEquals(1, stored.size());
+        assertTrue(keyRing.publicKey(key.kid()).isPresent());
+        assertEquals(key.kid(), keyRing.publicJwks().getKeys().getFirst().getKeyID());
+        assertTrue(keyRing.publicJwks().toJSONObject(true).toString().contains("ES256"));
+    }
+
+    @Test
+    void rotatedKeyShouldSignOnlyAfterActivationDelay() {
+        SigningKey first = keyRing.signingKey();
+        long now = System.currentTimeMillis();
+
+        keyRing.rotateIfDue(now + TimeUnit.HOURS.toMillis(ROTATION_HOURS) - ACTIVATION_DELAY_MS + 1);
+
+        assertEquals(2, stored.size());
+        assertEquals(first.kid(), keyRing.signingKey().kid());
+        assertEquals(2, keyRing.publicJwks().getKeys().size());
+        stored.replaceAll(key -> new SigningKey(key.kid(), key.publicKey(), key.privateKey(),
+                key.kid().equals(first.kid()) ? now - 2 * ACTIVATION_DELAY_MS : now - ACTIVATION_DELAY_MS));
+        keyRing.refresh();
+        assertNotEquals(first.kid(), keyRing.signingKey().kid());
+    }
+
+    @Test
+    void supersededKeyShouldBeDeletedOnceItsTokensExpired() {
+        SigningKey first = keyRing.signingKey();
+        long now = System.currentTimeMillis();
+        doAnswer(inv -> stored.removeIf(key -> key.kid().equals(inv.getArgument(0)))).when(repository).delete(anyString());
+
+        long rotateAt = now + TimeUnit.HOURS.toMillis(ROTATION_HOURS) - ACTIVATION_DELAY_MS + 1;
+        keyRing.rotateIfDue(rotateAt);
+        keyRing.rotateIfDue(rotateAt + ACTIVATION_DELAY_MS + TimeUnit.SECONDS.toMillis(REFRESH_EXPIRATION_SECONDS) + 1);
+
+        assertEquals(1, stored.size());
+        assertTrue(keyRing.publicKey(first.kid()).isEmpty());
+    }
+}
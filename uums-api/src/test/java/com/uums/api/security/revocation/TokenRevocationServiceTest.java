@@ -0,0 +1,97 @@
+package com.uums.api.security.revocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository repository;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(repository, 1_209_600, 3_600_000, 1000, 0.001);
+    }
+
+    @Test
+    void unrevokedSessionShouldNotTouchTheDatabase() {
+        when(repository.findSessionIdsRevokedSince(anyLong())).thenReturn(List.of("revoked-session"));
+
+        for (int i = 0; i < 1000; i++) {
+            revocationService.isSessionRevoked(UUID.randomUUID().toString());
+        }
+
+        verify(repository, never()).exists(anyString());
+    }
+
+    @Test
+    void revokedSessionShouldBeConfirmedExactly() {
+        when(repository.findSessionIdsRevokedSince(anyLong())).thenReturn(List.of("revoked-session"));
+        when(repository.exists("revoked-session")).thenReturn(true);
+
+        assertTrue(revocationService.isSessionRevoked("revoked-session"));
+        assertEquals(1L, revocationService.metrics().get("security.revocation.confirmed"));
+    }
+
+    @Test
+    void locallyRevokedSessionShouldBeVisibleImmediately() {
+        when(repository.findSessionIdsRevokedSince(anyLong())).thenReturn(List.of());
+        when(repository.exists("session-1")).thenReturn(true);
+
+        assertFalse(revocationService.isSessionRevoked("session-1"));
+        revocationService.revokeSession("session-1");
+
+        assertTrue(revocationService.isSessionRevoked("session-1"));
+        verify(repository).insert(eq("session-1"), eq(RevokedTokenRepository.KIND_SESSION), anyLong(), anyLong());
+    }
+
+    @Test
+    void secondConsumeShouldReportReuse() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        when(repository.insert(eq("jti-1"), eq(RevokedTokenRepository.KIND_REFRESH_TOKEN), anyLong(), anyLong()))
+                .thenReturn(true)
+                .thenReturn(false);
+
+        assertTrue(revocationService.consumeRefreshToken("jti-1", expiresAt));
+        assertFalse(revocationService.consumeRefreshToken("jti-1", expiresAt));
+        assertEquals(1L, revocationService.metrics().get("security.revocation.reuse-detected"));
+    }
+
+    @Test
+    void bloomFilterShouldStayNearTargetFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.001);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("revoked-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("active-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("revoked-" + i));
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
@@ -1,8 +1,11 @@
 package com.uums.api.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.uums.api.auth.AuthException;
@@ -15,6 +18,9 @@ import com.uums.api.domain.User;
 import com.uums.api.repository.RoleRepository;
 import com.uums.api.repository.UserRepository;
 import com.uums.api.security.JwtService;
+import com.uums.api.security.RefreshToken;
+import com.uums.api.security.revocation.TokenRevocationService;
+import java.time.Instant;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,12 +36,13 @@ class AuthServiceTest {
     @Mock private RoleRepository roleRepository;
     @Mock private PasswordEncoder passwordEncoder;
     @Mock private JwtService jwtService;
+    @Mock private TokenRevocationService revocationService;
 
     private AuthService authService;
 
     @BeforeEach
     void setUp() {
-        authService = new AuthService(userRepository, roleRepository, passwordEncoder, jwtService, 3);
+        authService = new AuthService(userRepository, roleRepository, passwordEncoder, jwtService, revocationService, 3);
     }
 
     @Test
@@ -51,7 +58,7 @@ class AuthServiceTest {
         when(passwordEncoder.encode("StrongPass@123")).thenReturn("encoded");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(jwtService.generateAccessToken(any(), any())).thenReturn("access-jwt-token");
-        when(jwtService.generateRefreshToken(any())).thenReturn("refresh-jwt-token");
+        when(jwtService.generateRefreshToken(any(), any())).thenReturn("refresh-jwt-token");
         when(jwtService.getAccessExpirationSeconds()).thenReturn(3600L);
 
         var response = authService.register(new RegisterRequest("newuser", "new@uums.local", "StrongPass@123"));
@@ -76,6 +83,27 @@ class AuthServiceTest {
         assertEquals(3, user.getFailedLoginAttempts());
     }
 
+    @Test
+    void successfulLoginShouldOnlyWriteWhenFailedAttemptsNeedResetting() {
+        User user = new User();
+        user.setUsername("test_user_01");
+        user.setPasswordHash("encoded");
+        user.setAccountStatus(AccountStatus.ACTIVE);
+
+        when(userRepository.findByUsername("test_user_01")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("right", "encoded")).thenReturn(true);
+
+        assertSame(user, authService.validatePrimaryCredentials("test_user_01", "right"));
+        verify(userRepository, never()).save(any());
+
+        user.setFailedLoginAttempts(2);
+        when(userRepository.save(user)).thenReturn(user);
+
+        authService.validatePrimaryCredentials("test_user_01", "right");
+        assertEquals(0, user.getFailedLoginAttempts());
+        verify(userRepository).save(user);
+    }
+
     @Test
     void refreshShouldIssueNewAccessAndRefreshTokens() {
         User user = new User();
@@ -86,15 +114,39 @@ class AuthServiceTest {
         role.setRoleCode("ROLE_USER");
         user.getRoles().add(role);
 
-        when(jwtService.extractSubjectFromRefreshToken("valid-refresh-token")).thenReturn("test_user_01");
+        RefreshToken token = new RefreshToken("test_user_01", "jti-1", "session-1", Instant.now().plusSeconds(60));
+        when(jwtService.parseRefreshToken("valid-refresh-token")).thenReturn(token);
+        when(revocationService.consumeRefreshToken("jti-1", token.expiresAt())).thenReturn(true);
         when(userRepository.findByUsername("test_user_01")).thenReturn(Optional.of(user));
         when(jwtService.generateAccessToken(any(), any())).thenReturn("new-access-token");
-        when(jwtService.generateRefreshToken(any())).thenReturn("new-refresh-token");
+        when(jwtService.generateRefreshToken(any(), any())).thenReturn("new-refresh-token");
         when(jwtService.getAccessExpirationSeconds()).thenReturn(3600L);
 
         var response = authService.refresh(new RefreshTokenRequest("valid-refresh-token"));
 
         assertEquals("new-access-token", response.accessToken());
         assertEquals("new-refresh-token", response.refreshToken());
+        verify(jwtService).generateRefreshToken("test_user_01", "session-1");
+    }
+
+    @Test
+    void reusedRefreshTokenShouldRevokeSession() {
+        RefreshToken token = new RefreshToken("test_user_01", "jti-1", "session-1", Instant.now().plusSeconds(60));
+        when(jwtService.parseRefreshToken("used-refresh-token")).thenReturn(token);
+        when(revocationService.consumeRefreshToken("jti-1", token.expiresAt())).thenReturn(false);
+
+        assertThrows(AuthException.class, () -> authService.refresh(new RefreshTokenRequest("used-refresh-token")));
+        verify(revocationService).revokeSession("session-1");
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void refreshShouldFailForRevokedSession() {
+        RefreshToken token = new RefreshToken("test_user_01", "jti-1", "session-1", Instant.now().plusSeconds(60));
+        when(jwtService.parseRefreshToken("revoked-refresh-token")).thenReturn(token);
+        when(revocationService.isSessionRevoked("session-1")).thenReturn(true);
+
+        assertThrows(AuthException.class, () -> authService.refresh(new RefreshTokenRequest("revoked-refresh-token")));
+        verify(revocationService, never()).consumeRefreshToken(any(), any());
     }
 }
@@ -0,0 +1,106 @@
+package com.uums.api.tenant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ApiKeyResolverTest {
+
+    private static final ResolvedApiKey BILLING = new ResolvedApiKey(7L, 70L, "default", PricingTier.PRO, 1000);
+
+    @Mock
+    private ServiceApiKeyRepository apiKeyRepository;
+
+    @Test
+    void resolveShouldLookUpByHashOnceWithinTtl() {
+        ApiKeyResolver resolver = new ApiKeyResolver(apiKeyRepository, 60, 100, 10);
+        when(apiKeyRepository.findActiveByApiKeyHash(ApiKeyHash.of("uums_billing"))).thenReturn(Optional.of(BILLING));
+
+        assertEquals(Optional.of(BILLING), resolver.resolve("uums_billing"));
+        assertEquals(Optional.of(BILLING), resolver.resolve("uums_billing"));
+
+        verify(apiKeyRepository, times(1)).findActiveByApiKeyHash(ApiKeyHash.of("uums_billing"));
+        assertEquals(1L, resolver.metrics().get("security.api-key-cache.hits"));
+    }
+
+    @Test
+    void unknownKeysShouldBeCachedAsMisses() {
+        ApiKeyResolver resolver = new ApiKeyResolver(apiKeyRepository, 60, 100, 10);
+        when(apiKeyRepository.findActiveByApiKeyHash(ApiKeyHash.of("uums_bogus"))).thenReturn(Optional.empty());
+
+        assertTrue(resolver.resolve("uums_bogus").isEmpty());
+        assertTrue(resolver.resolve("uums_bogus").isEmpty());
+
+        verify(apiKeyRepository, times(1)).findActiveByApiKeyHash(ApiKeyHash.of("uums_bogus"));
+    }
+
+    @Test
+    void invalidateShouldForceReload() {
+        ApiKeyResolver resolver = new ApiKeyResolver(apiKeyRepository, 60, 100, 10);
+        String hash = ApiKeyHash.of("uums_billing");
+        when(apiKeyRepository.findActiveByApiKeyHash(hash)).thenReturn(Optional.of(BILLING), Optional.empty());
+
+        resolver.resolve("uums_billing");
+        resolver.invalidate(hash);
+
+        assertTrue(resolver.resolve("uums_billing").isEmpty());
+    }
+
+    @Test
+    void cacheShouldStayWithinMaxEntries() {
+        ApiKeyResolver resolver = new ApiKeyResolver(apiKeyRepository, 60, 2, 10);
+        when(apiKeyRepository.findActiveByApiKeyHash(anyString())).thenReturn(Optional.of(BILLING));
+
+        resolver.resolve("uums_a");
+        resolver.resolve("uums_b");
+        resolver.resolve("uums_c");
+
+        assertTrue(resolver.metrics().get("security.api-key-cache.size").intValue() <= 2);
+    }
+
+    @Test
+    void unknownKeysShouldNotEvictValidKeys() {
+        ApiKeyResolver resolver = new ApiKeyResolver(apiKeyRepository, 60, 100, 2);
+        when(apiKeyRepository.findActiveByApiKeyHash(anyString())).thenReturn(Optional.empty());
+        when(apiKeyRepository.findActiveByApiKeyHash(ApiKeyHash.of("uums_billing"))).thenReturn(Optional.of(BILLING));
+        resolver.resolve("uums_billing");
+
+        for (int i = 0; i < 50; i++) {
+            resolver.resolve("uums_bogus_" + i);
+        }
+
+        assertEquals(Optional.of(BILLING), resolver.resolve("uums_billing"));
+        verify(apiKeyRepository, times(1)).findActiveByApiKeyHash(ApiKeyHash.of("uums_billing"));
+        assertTrue(resolver.metrics().get("security.api-key-cache.unknown-size").intValue() <= 2);
+    }
+
+    @Test
+    void lookupRacingAnInvalidationShouldNotCacheTheStaleKey() {
+        ApiKeyResolver resolver = new ApiKeyResolver(apiKeyRepository, 60, 100, 10);
+        String hash = ApiKeyHash.of("uums_billing");
+        when(apiKeyRepository.findActiveByApiKeyHash(hash)).thenAnswer(invocation -> {
+            // the key is deactivated and invalidated while this lookup still holds the old row
+            resolver.invalidate(hash);
+            return Optional.of(BILLING);
+        }).thenReturn(Optional.empty());
+
+        assertEquals(Optional.of(BILLING), resolver.resolve("uums_billing"));
+
+        assertTrue(resolver.resolve("uums_billing").isEmpty());
+    }
+
+    @Test
+    void hashShouldBeLowercaseHexSha256() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", ApiKeyHash.of("abc"));
+    }
+}
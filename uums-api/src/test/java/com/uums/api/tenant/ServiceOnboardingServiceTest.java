@@ -1,16 +1,51 @@
 package com.uums.api.tenant;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uums.api.auth.AuthException;
 import com.uums.api.tenant.dto.ServiceOnboardRequest;
+import com.uums.api.tenant.dto.ServiceStatIncrement;
+import com.uums.api.tenant.dto.ServiceStatIncrementRequest;
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import com.uums.api.tenant.dto.TrafficCursor;
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+import com.uums.api.tenant.dto.TrafficIngestRequest;
+import com.uums.api.tenant.ingest.TrafficBackpressureException;
+import com.uums.api.tenant.ingest.TrafficIngestPipeline;
+import com.uums.api.tenant.ingest.TrafficNdjsonReader;
+import com.uums.api.tenant.ingest.TrafficProtobufReader;
+import com.uums.api.tenant.latency.LatencyHistogramRepository;
+import com.uums.api.tenant.latency.TrafficLatencyTracker;
+import com.uums.api.tenant.sketch.TrafficSketchTracker;
+import com.uums.api.tenant.stats.ServiceStatDeltaWriter;
+import com.uums.api.tenant.stats.StatKey;
+import com.uums.api.tenant.stats.StatRow;
+import com.uums.api.tenant.stream.TrafficStreamBroadcaster;
+import com.uums.api.tenant.window.TrafficHotWindow;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 class ServiceOnboardingServiceTest {
@@ -18,9 +53,46 @@ class ServiceOnboardingServiceTest {
     @Mock
     private ServiceApplicationRepository repository;
 
+    @Mock
+    private ServiceApiKeyRepository apiKeyRepository;
+
+    @Mock
+    private ServiceTrafficEventRepository trafficEventRepository;
+
+    @Mock
+    private ServiceStatSnapshotRepository statSnapshotRepository;
+
+    @Mock
+    private TrafficIngestPipeline trafficIngestPipeline;
+
+    @Mock
+    private ServiceStatDeltaWriter statDeltaWriter;
+
+    @Mock
+    private TrafficSketchTracker trafficSketchTracker;
+
+    @Mock
+    private LatencyHistogramRepository latencyHistogramRepository;
+
+    @Mock
+    private ApiKeyResolver apiKeyResolver;
+
+    private ServiceOnboardingService service;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        TrafficNdjsonReader ndjsonReader = new TrafficNdjsonReader(new ObjectMapper().findAndRegisterModules(), validator);
+        service = new ServiceOnboardingService(
+                repository, apiKeyRepository, trafficEventRepository, statSnapshotRepository,
+                trafficIngestPipeline, ndjsonReader, new TrafficProtobufReader(validator),
+                new TrafficStreamBroadcaster(4, 1, 1000, 10), new TrafficHotWindow(false, 10, 100),
+                statDeltaWriter, new TrafficLatencyTracker(latencyHistogramRepository, "node-a", 60, 24, 100), trafficSketchTracker,
+                apiKeyResolver);
+    }
+
     @Test
     void onboardShouldCreateApiKeyWithExpectedPrefix() {
-        ServiceOnboardingService service = new ServiceOnboardingService(repository);
         ServiceOnboardRequest request = new ServiceOnboardRequest("billing-service", "owner@uums.local", PricingTier.BASIC);
 
         when(repository.existsByServiceName("billing-service")).thenReturn(false);
@@ -38,7 +110,6 @@ class ServiceOnboardingServiceTest {
 
     @Test
     void listShouldMapAllServices() {
-        ServiceOnboardingService service = new ServiceOnboardingService(repository);
         ServiceApplication app = new ServiceApplication();
         app.setServiceName("reporting-service");
         app.setOwnerEmail("ops@uums.local");
@@ -53,4 +124,189 @@ class ServiceOnboardingServiceTest {
         assertEquals(1, result.size());
         assertEquals("reporting-service", result.getFirst().serviceName());
     }
+
+    @Test
+    void ingestTrafficShouldRejectUnknownServiceBeforeQueueing() {
+        TrafficIngestRequest request = new TrafficIngestRequest(List.of(
+                new TrafficIngestMessage(42L, "checkout", "{}", "OK", null, null, null)));
+
+        when(repository.findAllById(any())).thenReturn(List.of());
+
+        assertThrows(AuthException.class, () -> service.ingestTraffic(request));
+        verify(trafficIngestPipeline, never()).offer(any());
+    }
+
+    @Test
+    void ingestTrafficShouldSignalBackpressureWhenMessagesAreRejected() {
+        ServiceApplication app = new ServiceApplication();
+        ReflectionTestUtils.setField(app, "id", 7L);
+        TrafficIngestRequest request = new TrafficIngestRequest(List.of(
+                new TrafficIngestMessage(7L, "checkout", "{}", "OK", null, null, null),
+                new TrafficIngestMessage(7L, "refund", "{}", "OK", null, null, null)));
+
+        when(repository.findAllById(any())).thenReturn(List.of(app));
+        when(trafficIngestPipeline.offer(request.messages())).thenReturn(1);
+        when(trafficIngestPipeline.queueDepth()).thenReturn(40000);
+        when(trafficIngestPipeline.isRunning()).thenReturn(true);
+        when(trafficIngestPipeline.getRetryAfterSeconds()).thenReturn(2L);
+
+        TrafficBackpressureException ex = assertThrows(
+                TrafficBackpressureException.class, () -> service.ingestTraffic(request));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatus());
+        assertEquals(1, ex.getResponse().acceptedCount());
+        assertEquals(1, ex.getResponse().rejectedCount());
+        assertEquals(2L, ex.getRetryAfterSeconds());
+    }
+
+    @Test
+    void ingestTrafficStreamShouldQueueValidRecordsAndCountInvalidOnes() {
+        String body = """
+                {"serviceId":7,"apiName":"checkout","inputData":"{}","status":"OK","eventTime":"2026-10-18T09:30:00"}
+                {"serviceId":7,"apiName":"x","inputData":"{}","status":"OK"}
+                {"serviceId":7,"apiName":"refund","inputData":"{}","status":"FAILED"}
+                """;
+
+        when(repository.existsById(7L)).thenReturn(true);
+        when(trafficIngestPipeline.offer(any())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        var response = service.ingestTrafficStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, response.acceptedCount());
+        assertEquals(1, response.rejectedCount());
+        assertEquals("PARTIALLY_ACCEPTED", response.status());
+    }
+
+    @Test
+    void ingestTrafficStreamShouldReportAcceptedRecordsWhenALaterRecordIsMalformed() {
+        String record = "{\"serviceId\":7,\"apiName\":\"checkout\",\"inputData\":\"{}\",\"status\":\"OK\"}\n";
+        String body = record.repeat(300) + "{\"serviceId\":7,\"apiName\n" + record.repeat(5);
+
+        when(repository.existsById(7L)).thenReturn(true);
+        when(trafficIngestPipeline.offer(any())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        var response = service.ingestTrafficStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(300, response.acceptedCount());
+        assertEquals(1, response.rejectedCount());
+        assertEquals("PARTIALLY_ACCEPTED", response.status());
+    }
+
+    @Test
+    void ingestTrafficStreamShouldRejectMalformedBodyWhenNothingWasAccepted() {
+        String body = """
+                {"serviceId":7,"apiName":"checkout","inputData":"{}","status":"OK"}
+                {"serviceId":7,"apiName
+                """;
+
+        when(repository.existsById(7L)).thenReturn(true);
+
+        assertThrows(AuthException.class,
+                () -> service.ingestTrafficStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+        verify(trafficIngestPipeline, never()).offer(any());
+    }
+
+    @Test
+    void ingestTrafficFramesShouldDefaultToKeyServiceAndRejectOtherServices() {
+        ResolvedApiKey caller = new ResolvedApiKey(7L, 70L, "frames", PricingTier.PRO, 1000);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeFrame(body, 0, "checkout", "OK");
+        writeFrame(body, 9, "checkout", "OK");
+        writeFrame(body, 7, "refund", "FAILED");
+
+        when(trafficIngestPipeline.offer(any())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        var response = service.ingestTrafficFrames(caller, new ByteArrayInputStream(body.toByteArray()));
+
+        assertEquals(2, response.acceptedCount());
+        assertEquals(1, response.rejectedCount());
+    }
+
+    @Test
+    void deactivateKeyShouldDisableKeyAndEvictItFromCache() {
+        ServiceApplication app = new ServiceApplication();
+        ReflectionTestUtils.setField(app, "id", 7L);
+        ServiceApiKey key = new ServiceApiKey();
+        key.setService(app);
+        key.setApiKeyHash(ApiKeyHash.of("uums_old"));
+        when(repository.findById(7L)).thenReturn(Optional.of(app));
+        when(apiKeyRepository.findById(70L)).thenReturn(Optional.of(key));
+
+        service.deactivateKey(7L, 70L);
+
+        assertFalse(key.isActive());
+        verify(apiKeyResolver).invalidate(ApiKeyHash.of("uums_old"));
+    }
+
+    @Test
+    void listTrafficShouldReturnNextCursorWhenMoreRowsRemain() {
+        TrafficEventQuery query = new TrafficEventQuery(7L, null, null, null, null, null, null);
+        LocalDateTime time = LocalDateTime.of(2026, 10, 18, 9, 30);
+        List<ServiceTrafficEventResponse> rows = List.of(
+                new ServiceTrafficEventResponse(12L, 7L, "billing", "checkout", "{}", "OK", time, null, null),
+                new ServiceTrafficEventResponse(11L, 7L, "billing", "checkout", "{}", "OK", time, null, null),
+                new ServiceTrafficEventResponse(10L, 7L, "billing", "refund", "{}", "OK", time.minusMinutes(1), null, null));
+
+        when(repository.findById(7L)).thenReturn(Optional.of(new ServiceApplication()));
+        when(trafficEventRepository.findPage(query, 3)).thenReturn(rows);
+
+        var page = service.listTraffic(query, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals(new TrafficCursor(time, 11L), page.nextCursor());
+    }
+
+    @Test
+    void listTrafficShouldRequireCompleteCursor() {
+        TrafficEventQuery query = new TrafficEventQuery(7L, null, null, null, null, LocalDateTime.now(), null);
+
+        when(repository.findById(7L)).thenReturn(Optional.of(new ServiceApplication()));
+
+        assertThrows(AuthException.class, () -> service.listTraffic(query, 50));
+    }
+
+    @Test
+    void incrementServiceStatsShouldMergeDuplicateCodesIntoOneUpsert() {
+        ServiceApplication app = new ServiceApplication();
+        app.setServiceName("billing-service");
+        LocalDateTime now = LocalDateTime.now();
+        ServiceStatIncrementRequest request = new ServiceStatIncrementRequest(List.of(
+                new ServiceStatIncrement("REQUEST_COUNT", 2L),
+                new ServiceStatIncrement("ERROR_COUNT", 1L),
+                new ServiceStatIncrement("REQUEST_COUNT", 3L)));
+
+        when(repository.findById(7L)).thenReturn(Optional.of(app));
+        when(statDeltaWriter.apply(Map.of(
+                new StatKey(7L, "REQUEST_COUNT"), 5L,
+                new StatKey(7L, "ERROR_COUNT"), 1L)))
+                .thenReturn(List.of(
+                        new StatRow(1L, 7L, "ERROR_COUNT", 1L, now),
+                        new StatRow(2L, 7L, "REQUEST_COUNT", 105L, now)));
+
+        var result = service.incrementServiceStats(7L, request);
+
+        assertEquals(2, result.size());
+        assertEquals(105L, result.get(1).statValue());
+        assertEquals("billing-service", result.get(1).serviceName());
+    }
+
+    private static void writeFrame(ByteArrayOutputStream out, long serviceId, String apiName, String status) {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        if (serviceId != 0) {
+            frame.write(0x08);
+            frame.write((int) serviceId);
+        }
+        writeString(frame, 0x12, apiName);
+        writeString(frame, 0x1A, "{}");
+        writeString(frame, 0x22, status);
+        out.write(frame.size());
+        out.writeBytes(frame.toByteArray());
+    }
+
+    private static void writeString(ByteArrayOutputStream out, int tag, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(tag);
+        out.write(bytes.length);
+        out.writeBytes(bytes);
+    }
 }
@@ -0,0 +1,81 @@
+package com.uums.api.tenant.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.uums.api.config.DatabaseDialect;
+import com.uums.api.tenant.ServiceApplicationRepository;
+import com.uums.api.tenant.ServiceStatSnapshot;
+import com.uums.api.tenant.ServiceStatSnapshotRepository;
+import com.uums.api.tenant.ServiceTrafficEventRepository;
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+import com.uums.api.tenant.stats.ServiceStatDeltaLog;
+import com.uums.api.tenant.stats.ServiceStatDeltaWriter;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TrafficEventBatchWriter.class, ServiceStatDeltaLog.class, ServiceStatDeltaWriter.class, DatabaseDialect.class})
+class TrafficEventBatchWriterTest {
+
+    private static final int EVENT_COUNT = 1000;
+
+    @Autowired
+    private TrafficEventBatchWriter batchWriter;
+
+    @Autowired
+    private ServiceApplicationRepository serviceRepository;
+
+    @Autowired
+    private ServiceTrafficEventRepository trafficEventRepository;
+
+    @Autowired
+    private ServiceStatDeltaLog statDeltaLog;
+
+    @Autowired
+    private ServiceStatSnapshotRepository statSnapshotRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void writeShouldBatchInsertsAndPoolSequenceCalls() {
+        Long serviceId = serviceRepository.findAll().getFirst().getId();
+        List<TrafficIngestMessage> messages = new ArrayList<>(EVENT_COUNT);
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            messages.add(new TrafficIngestMessage(
+                    serviceId, "checkout", "{}", "OK", LocalDateTime.now(), null, null));
+        }
+        long before = trafficEventRepository.count();
+        long countedBefore = requestCount(serviceId);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        batchWriter.write(messages);
+
+        // 1000 / 50 sequence round trips plus 1000 / 500 insert batches, instead of one statement per row
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= EVENT_COUNT / 50 + EVENT_COUNT / 500 + 1, "prepared statements: " + statements);
+        assertEquals(before + EVENT_COUNT, trafficEventRepository.count());
+        statDeltaLog.fold();
+        assertEquals(countedBefore + EVENT_COUNT, requestCount(serviceId));
+        statDeltaLog.fold();
+        assertEquals(countedBefore + EVENT_COUNT, requestCount(serviceId));
+    }
+
+    private long requestCount(Long serviceId) {
+        return statSnapshotRepository.findByServiceIdAndStatCode(serviceId, TrafficEventBatchWriter.REQUEST_COUNT)
+                .map(ServiceStatSnapshot::getStatValue)
+                .orElse(0L);
+    }
+}
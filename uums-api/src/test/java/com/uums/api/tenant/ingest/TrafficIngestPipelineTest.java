@@ -0,0 +1,133 @@
+package com.uums.api.tenant.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class TrafficIngestPipelineTest {
+
+    @Mock
+    private TrafficEventBatchWriter batchWriter;
+
+    private final TrafficWriteAheadLog writeAheadLog = new TrafficWriteAheadLog(false, "", 1, false);
+    private final List<TrafficIngestMessage> written = new CopyOnWriteArrayList<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> {
+            List<TrafficIngestMessage> batch = invocation.getArgument(0);
+            written.addAll(batch);
+            batchSizes.add(batch.size());
+            return List.of();
+        }).when(batchWriter).write(any());
+    }
+
+    @Test
+    void stopShouldDrainQueuedMessagesInBatches() {
+        TrafficIngestPipeline pipeline = new TrafficIngestPipeline(batchWriter, writeAheadLog, List.of(), 100, 100, 1, 1, 4, 5, 5, 1, 5);
+        pipeline.start();
+
+        assertEquals(10, pipeline.offer(IntStream.range(0, 10).mapToObj(this::message).toList()));
+        pipeline.stop();
+
+        assertEquals(10, written.size());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 4));
+        written.forEach(message -> assertNotNull(message.eventTime()));
+    }
+
+    @Test
+    void offerShouldRejectMessagesAboveHighWaterMark() {
+        TrafficIngestPipeline pipeline = new TrafficIngestPipeline(batchWriter, writeAheadLog, List.of(), 100, 3, 1, 1, 4, 5, 5, 1, 5);
+        ReflectionTestUtils.setField(pipeline, "running", true);
+
+        int accepted = pipeline.offer(IntStream.range(0, 5).mapToObj(this::message).toList());
+
+        assertEquals(3, accepted);
+        assertEquals(3, pipeline.queueDepth());
+        assertEquals(0, pipeline.offer(List.of(message(6))));
+    }
+
+    @Test
+    void offerShouldAcceptNothingWhenPipelineIsStopped() {
+        TrafficIngestPipeline pipeline = new TrafficIngestPipeline(batchWriter, writeAheadLog, List.of(), 10, 10, 1, 1, 4, 5, 5, 1, 5);
+
+        assertEquals(0, pipeline.offer(List.of(message(1))));
+    }
+
+    @Test
+    void unavailableDatabaseShouldBeRetriedUntilTheBatchIsWritten() {
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new CannotCreateTransactionException(
+                        "down", new SQLTransientConnectionException("timeout", "08001"));
+            }
+            written.addAll(invocation.getArgument(0));
+            return List.of();
+        }).when(batchWriter).write(any());
+        TrafficIngestPipeline pipeline = new TrafficIngestPipeline(batchWriter, writeAheadLog, List.of(), 100, 100, 1, 1, 4, 5, 5, 1, 5);
+        pipeline.start();
+
+        pipeline.offer(IntStream.range(0, 3).mapToObj(this::message).toList());
+        pipeline.stop();
+
+        assertEquals(3, written.size());
+        assertEquals(2L, pipeline.metrics().get("traffic.ingest.retries"));
+    }
+
+    @Test
+    void poisonMessageShouldBeIsolatedAndDeadLettered() {
+        doAnswer(invocation -> {
+            List<TrafficIngestMessage> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(message -> message.apiName().equals("api-2"))) {
+                throw new IllegalStateException("insert failed",
+                        new SQLIntegrityConstraintViolationException("fk", "23503"));
+            }
+            written.addAll(batch);
+            return List.of();
+        }).when(batchWriter).write(any());
+        TrafficIngestPipeline pipeline = new TrafficIngestPipeline(batchWriter, writeAheadLog, List.of(), 100, 100, 1, 1, 4, 5, 5, 1, 5);
+        pipeline.start();
+
+        pipeline.offer(IntStream.range(0, 4).mapToObj(this::message).toList());
+        pipeline.stop();
+
+        assertEquals(List.of("api-0", "api-1", "api-3"), written.stream().map(TrafficIngestMessage::apiName).sorted().toList());
+        assertEquals(1L, pipeline.metrics().get("traffic.ingest.dead-lettered"));
+        assertEquals(0L, pipeline.metrics().get("traffic.ingest.retries"));
+    }
+
+    @Test
+    void dataErrorsShouldBeToldApartFromOutages() {
+        assertTrue(TrafficIngestPipeline.isDataError(new RuntimeException(new SQLException("too long", "22001"))));
+        assertTrue(TrafficIngestPipeline.isDataError(new NullPointerException()));
+        assertFalse(TrafficIngestPipeline.isDataError(new RuntimeException(new SQLException("gone", "08006"))));
+        assertFalse(TrafficIngestPipeline.isDataError(new CannotCreateTransactionException("down")));
+    }
+
+    private TrafficIngestMessage message(int index) {
+        return new TrafficIngestMessage(1L, "api-" + index, "{}", "OK", null, null, null);
+    }
+}
@@ -0,0 +1,193 @@
+package com.uums.api.tenant.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.uums.api.auth.AuthException;
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class TrafficProtobufReaderTest {
+
+    private final TrafficProtobufReader reader =
+            new TrafficProtobufReader(Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void shouldReadKnownFieldsAndSkipUnknownOnes() throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        varintField(frame, 1, 42);
+        stringField(frame, 2, "orders.create");
+        varintField(frame, 9, 300);
+        tag(frame, 10, 1);
+        frame.writeBytes(new byte[8]);
+        stringField(frame, 3, "{}");
+        stringField(frame, 11, "ignored");
+        tag(frame, 12, 5);
+        frame.writeBytes(new byte[4]);
+        stringField(frame, 4, "OK");
+        varintField(frame, 6, 17);
+        stringField(frame, 7, "billing");
+
+        TrafficRecordCursor cursor = reader.open(stream(frame.toByteArray()), 7L, "default-caller");
+        assertTrue(cursor.next());
+        TrafficIngestMessage message = cursor.read();
+        assertFalse(cursor.next());
+
+        assertEquals(42L, message.serviceId());
+        assertEquals("orders.create", message.apiName());
+        assertEquals("{}", message.inputData());
+        assertEquals("OK", message.status());
+        assertEquals(17L, message.latencyMs());
+        assertEquals("billing", message.callerId());
+    }
+
+    @Test
+    void shouldFallBackToDefaultServiceAndCaller() throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        stringField(frame, 2, "orders.create");
+        stringField(frame, 3, "{}");
+        stringField(frame, 4, "OK");
+
+        TrafficRecordCursor cursor = reader.open(stream(frame.toByteArray()), 7L, "default-caller");
+        assertTrue(cursor.next());
+        TrafficIngestMessage message = cursor.read();
+
+        assertEquals(7L, message.serviceId());
+        assertEquals("default-caller", message.callerId());
+    }
+
+    @Test
+    void shouldRejectTruncatedFrame() {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeVarint(body, 20);
+        body.writeBytes(new byte[5]);
+
+        TrafficRecordCursor cursor = reader.open(new ByteArrayInputStream(body.toByteArray()), 7L, null);
+        assertThrows(AuthException.class, cursor::next);
+    }
+
+    @Test
+    void shouldRejectMalformedLengthPrefix() {
+        TrafficRecordCursor cursor = reader.open(new ByteArrayInputStream(new byte[] {(byte) 0x80}), 7L, null);
+        assertThrows(AuthException.class, cursor::next);
+    }
+
+    @Test
+    void shouldRejectStringRunningPastTheFrame() throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        tag(frame, 2, 2);
+        writeVarint(frame, 50);
+        frame.writeBytes("short".getBytes(StandardCharsets.UTF_8));
+
+        assertReadRejected(frame.toByteArray());
+    }
+
+    @Test
+    void shouldRejectVarintWithoutTerminator() throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        tag(frame, 1, 0);
+        for (int i = 0; i < 11; i++) {
+            frame.write(0xFF);
+        }
+
+        assertReadRejected(frame.toByteArray());
+    }
+
+    @Test
+    void shouldRejectVarintCutOffByFrameEnd() throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        tag(frame, 6, 0);
+        frame.write(0x80);
+
+        assertReadRejected(frame.toByteArray());
+    }
+
+    @Test
+    void shouldRejectKnownFieldWithWrongWireType() throws IOException {
+        ByteArrayOutputStream stringAsVarint = new ByteArrayOutputStream();
+        varintField(stringAsVarint, 2, 5);
+        assertReadRejected(stringAsVarint.toByteArray());
+
+        ByteArrayOutputStream varintAsString = new ByteArrayOutputStream();
+        stringField(varintAsString, 1, "42");
+        assertReadRejected(varintAsString.toByteArray());
+
+        ByteArrayOutputStream fixed64Latency = new ByteArrayOutputStream();
+        tag(fixed64Latency, 6, 1);
+        fixed64Latency.writeBytes(new byte[8]);
+        assertReadRejected(fixed64Latency.toByteArray());
+    }
+
+    @Test
+    void shouldRejectFieldNumberZero() throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        varintField(frame, 0, 1);
+
+        assertReadRejected(frame.toByteArray());
+    }
+
+    @Test
+    void shouldRejectUnknownFieldRunningPastTheFrame() throws IOException {
+        ByteArrayOutputStream lengthDelimited = new ByteArrayOutputStream();
+        tag(lengthDelimited, 15, 2);
+        writeVarint(lengthDelimited, 1L << 40);
+        assertReadRejected(lengthDelimited.toByteArray());
+
+        ByteArrayOutputStream fixed32 = new ByteArrayOutputStream();
+        tag(fixed32, 15, 5);
+        fixed32.writeBytes(new byte[2]);
+        assertReadRejected(fixed32.toByteArray());
+    }
+
+    @Test
+    void shouldRejectGroupWireTypes() throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        tag(frame, 15, 3);
+
+        assertReadRejected(frame.toByteArray());
+    }
+
+    private void assertReadRejected(byte[] frame) throws IOException {
+        TrafficRecordCursor cursor = reader.open(stream(frame), 7L, null);
+        assertTrue(cursor.next());
+        assertThrows(AuthException.class, cursor::read);
+    }
+
+    private static ByteArrayInputStream stream(byte[] frame) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeVarint(body, frame.length);
+        body.writeBytes(frame);
+        return new ByteArrayInputStream(body.toByteArray());
+    }
+
+    private static void varintField(ByteArrayOutputStream out, int field, long value) {
+        tag(out, field, 0);
+        writeVarint(out, value);
+    }
+
+    private static void stringField(ByteArrayOutputStream out, int field, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        tag(out, field, 2);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void tag(ByteArrayOutputStream out, int field, int wireType) {
+        writeVarint(out, ((long) field << 3) | wireType);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,91 @@
+package com.uums.api.tenant.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.uums.api.tenant.dto.TrafficIngestMessage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TrafficWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void openShouldReplayOnlyUncommittedMessages() {
+        TrafficWriteAheadLog writeAheadLog = new TrafficWriteAheadLog(true, directory.toString(), 1, false);
+        writeAheadLog.open(pending -> { });
+        long first = writeAheadLog.append(message("checkout"));
+        writeAheadLog.append(message("refund"));
+        writeAheadLog.append(message("search"));
+        writeAheadLog.commit(List.of(first));
+        writeAheadLog.close();
+
+        List<PendingTrafficMessage> replayed = new ArrayList<>();
+        new TrafficWriteAheadLog(true, directory.toString(), 1, false).open(replayed::add);
+
+        assertEquals(List.of("refund", "search"), replayed.stream().map(pending -> pending.message().apiName()).toList());
+        assertEquals(LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_000_000), replayed.getFirst().message().eventTime());
+    }
+
+    @Test
+    void commitShouldDeleteFullyCommittedSegments() throws Exception {
+        TrafficWriteAheadLog writeAheadLog = new TrafficWriteAheadLog(true, directory.toString(), 1, false);
+        writeAheadLog.open(pending -> { });
+        List<Long> sequences = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            sequences.add(writeAheadLog.append(message("api-" + i)));
+        }
+
+        writeAheadLog.commit(sequences);
+        writeAheadLog.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of("checkpoint", "lock"), files.map(path -> path.getFileName().toString()).sorted().toList());
+        }
+    }
+
+    @Test
+    void deadLetteredMessageShouldNotBeReplayed() throws Exception {
+        TrafficWriteAheadLog writeAheadLog = new TrafficWriteAheadLog(true, directory.toString(), 1, false);
+        writeAheadLog.open(pending -> { });
+        long sequence = writeAheadLog.append(message("poison"));
+        writeAheadLog.deadLetter(new PendingTrafficMessage(sequence, message("poison")));
+        writeAheadLog.commit(List.of(sequence));
+        writeAheadLog.close();
+
+        List<PendingTrafficMessage> replayed = new ArrayList<>();
+        new TrafficWriteAheadLog(true, directory.toString(), 1, false).open(replayed::add);
+
+        assertTrue(replayed.isEmpty());
+        assertTrue(Files.size(directory.resolve("dead-letter.wal")) > 0);
+    }
+
+    @Test
+    void directoryShouldBeLockedWhileOpen() {
+        TrafficWriteAheadLog writeAheadLog = new TrafficWriteAheadLog(true, directory.toString(), 1, false);
+        writeAheadLog.open(pending -> { });
+
+        assertThrows(IllegalStateException.class,
+                () -> new TrafficWriteAheadLog(true, directory.toString(), 1, false).open(pending -> { }));
+        writeAheadLog.close();
+    }
+
+    @Test
+    void enabledLogShouldRequireADirectory() {
+        assertThrows(IllegalStateException.class, () -> new TrafficWriteAheadLog(true, " ", 1, false));
+    }
+
+    private TrafficIngestMessage message(String apiName) {
+        return new TrafficIngestMessage(1L, apiName, "x".repeat(8000), "OK",
+                LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_000_000), 42L, "caller-1");
+    }
+}
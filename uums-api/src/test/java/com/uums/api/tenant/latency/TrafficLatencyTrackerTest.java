@@ -0,0 +1,153 @@
+package com.uums.api.tenant.latency;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.uums.api.tenant.dto.LatencyPercentilesResponse;
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class TrafficLatencyTrackerTest {
+
+    private LatencyHistogramRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(LatencyHistogramRepository.class);
+    }
+
+    @Test
+    void percentilesShouldStayWithinHistogramPrecision() {
+        TrafficLatencyTracker tracker = tracker();
+        LocalDateTime now = LocalDateTime.now();
+        tracker.onTrafficEvents(LongStream.rangeClosed(1, 1000)
+                .mapToObj(latency -> event("checkout", now, latency))
+                .toList());
+
+        LatencyPercentilesResponse response = tracker.percentiles(7L, "checkout", 5);
+
+        assertEquals(1000, response.count());
+        assertWithinPrecision(500, response.p50());
+        assertWithinPrecision(900, response.p90());
+        assertWithinPrecision(990, response.p99());
+        assertWithinPrecision(1000, response.max());
+    }
+
+    @Test
+    void serviceWideQueryShouldMergeApisAndSkipEventsWithoutLatency() {
+        TrafficLatencyTracker tracker = tracker();
+        LocalDateTime now = LocalDateTime.now();
+        tracker.onTrafficEvents(List.of(
+                event("checkout", now, 10L),
+                event("refund", now, 20L),
+                event("refund", now, null)));
+
+        LatencyPercentilesResponse response = tracker.percentiles(7L, null, 120);
+
+        assertEquals(2, response.count());
+        assertEquals(20, response.max());
+    }
+
+    @Test
+    void eventsOutsideWindowShouldNotCount() {
+        TrafficLatencyTracker tracker = tracker();
+        tracker.onTrafficEvents(List.of(event("checkout", LocalDateTime.now().minusMinutes(30), 10L)));
+
+        assertEquals(0, tracker.percentiles(7L, "checkout", 5).count());
+        assertEquals(1, tracker.percentiles(7L, "checkout", 60).count());
+    }
+
+    @Test
+    void percentilesShouldAddHistogramsFlushedByOtherNodes() {
+        TrafficLatencyTracker tracker = tracker();
+        LocalDateTime now = LocalDateTime.now();
+        tracker.onTrafficEvents(List.of(event("checkout", now, 10L)));
+        LatencyHistogram remote = new LatencyHistogram();
+        remote.record(1000);
+        remote.record(1000);
+        when(repository.findByService(eq(7L), eq("checkout"), eq(BucketGranularity.MINUTE), any(), any()))
+                .thenReturn(List.of(new StoredHistogram("node-b", 7L, "checkout", BucketGranularity.MINUTE,
+                        now.truncatedTo(ChronoUnit.MINUTES), remote.toBytes())));
+
+        LatencyPercentilesResponse response = tracker.percentiles(7L, "checkout", 5);
+
+        assertEquals(3, response.count());
+        assertWithinPrecision(1000, response.max());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushShouldFoldOwnRowOnceAndNotCountItTwice() {
+        TrafficLatencyTracker tracker = tracker();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime minute = now.truncatedTo(ChronoUnit.MINUTES);
+        LatencyHistogram beforeRestart = new LatencyHistogram();
+        for (int i = 0; i < 5; i++) {
+            beforeRestart.record(20);
+        }
+        StoredHistogram ownRow = new StoredHistogram(
+                "node-a", 7L, "checkout", BucketGranularity.MINUTE, minute, beforeRestart.toBytes());
+        when(repository.findByNode("node-a", 7L, "checkout", BucketGranularity.MINUTE, minute))
+                .thenReturn(List.of(ownRow));
+        when(repository.findByService(eq(7L), eq("checkout"), eq(BucketGranularity.MINUTE), any(), any()))
+                .thenReturn(List.of(ownRow));
+        tracker.onTrafficEvents(List.of(event("checkout", now, 10L)));
+
+        assertEquals(6, tracker.percentiles(7L, "checkout", 5).count());
+        tracker.flush(now);
+        tracker.flush(now);
+
+        ArgumentCaptor<List<StoredHistogram>> rows = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(rows.capture());
+        assertEquals(2, rows.getValue().size());
+        verify(repository, times(1)).findByNode("node-a", 7L, "checkout", BucketGranularity.MINUTE, minute);
+        assertEquals(6, tracker.percentiles(7L, "checkout", 5).count());
+    }
+
+    @Test
+    void histogramShouldSurviveSerialization() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongStream.rangeClosed(1, 500).forEach(histogram::record);
+        long[] original = new long[LatencyHistogram.BUCKET_COUNT];
+        histogram.addTo(original);
+
+        long[] restored = new long[LatencyHistogram.BUCKET_COUNT];
+        LatencyHistogram.addTo(histogram.toBytes(), restored);
+
+        assertArrayEquals(original, restored);
+    }
+
+    @Test
+    void bucketBoundsShouldRoundTrip() {
+        for (long value : new long[] {0, 31, 32, 33, 63, 64, 1000, 65_535, LatencyHistogram.MAX_TRACKABLE_MS}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+            assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.highestValueOf(index)));
+        }
+    }
+
+    private TrafficLatencyTracker tracker() {
+        return new TrafficLatencyTracker(repository, "node-a", 60, 24, 100);
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.07, "expected ~" + expected + " but was " + actual);
+    }
+
+    private static ServiceTrafficEventResponse event(String apiName, LocalDateTime eventTime, Long latencyMs) {
+        return new ServiceTrafficEventResponse(1L, 7L, "billing", apiName, "{}", "OK", eventTime, latencyMs, null);
+    }
+}
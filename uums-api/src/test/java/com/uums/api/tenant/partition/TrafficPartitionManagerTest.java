@@ -0,0 +1,85 @@
+package com.uums.api.tenant.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class TrafficPartitionManagerTest {
+
+    private static final Clock CLOCK = Clock.fixed(
+            LocalDateTime.of(2026, 10, 18, 10, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @Test
+    void dailyPartitionsShouldContinueFromLastUpperBound() {
+        TrafficPartitionManager manager = manager(PartitionGranularity.DAILY, 2, 30);
+        List<TrafficPartition> existing = List.of(
+                new TrafficPartition("service_traffic_event_history", null, LocalDateTime.of(2026, 10, 18, 0, 0)));
+
+        List<TrafficPartition> created = manager.partitionsToCreate(existing);
+
+        assertEquals(List.of(
+                new TrafficPartition("service_traffic_event_p20261018",
+                        LocalDateTime.of(2026, 10, 18, 0, 0), LocalDateTime.of(2026, 10, 19, 0, 0)),
+                new TrafficPartition("service_traffic_event_p20261019",
+                        LocalDateTime.of(2026, 10, 19, 0, 0), LocalDateTime.of(2026, 10, 20, 0, 0)),
+                new TrafficPartition("service_traffic_event_p20261020",
+                        LocalDateTime.of(2026, 10, 20, 0, 0), LocalDateTime.of(2026, 10, 21, 0, 0))), created);
+    }
+
+    @Test
+    void monthlyPartitionShouldStartAtUnalignedHistoryBound() {
+        TrafficPartitionManager manager = manager(PartitionGranularity.MONTHLY, 0, 30);
+        List<TrafficPartition> existing = List.of(
+                new TrafficPartition("service_traffic_event_history", null, LocalDateTime.of(2026, 10, 18, 0, 0)));
+
+        List<TrafficPartition> created = manager.partitionsToCreate(existing);
+
+        assertEquals(List.of(new TrafficPartition("service_traffic_event_p202610",
+                LocalDateTime.of(2026, 10, 18, 0, 0), LocalDateTime.of(2026, 11, 1, 0, 0))), created);
+    }
+
+    @Test
+    void partitionsEndingBeforeRetentionCutoffShouldBeDropped() {
+        TrafficPartitionManager manager = manager(PartitionGranularity.DAILY, 2, 30);
+        TrafficPartition expired = new TrafficPartition("service_traffic_event_p20260917",
+                LocalDateTime.of(2026, 9, 17, 0, 0), LocalDateTime.of(2026, 9, 18, 0, 0));
+        TrafficPartition retained = new TrafficPartition("service_traffic_event_p20260918",
+                LocalDateTime.of(2026, 9, 18, 0, 0), LocalDateTime.of(2026, 9, 19, 0, 0));
+
+        assertEquals(List.of(expired), manager.partitionsToDrop(List.of(expired, retained)));
+    }
+
+    @Test
+    void maintenanceShouldBeSkippedWhileAnotherNodeHoldsTheLock() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(false);
+        TrafficPartitionManager manager = new TrafficPartitionManager(
+                jdbcTemplate, mock(PlatformTransactionManager.class), true, PartitionGranularity.DAILY, 2, 30);
+
+        manager.maintain();
+
+        verify(jdbcTemplate).queryForObject(
+                eq("SELECT pg_try_advisory_xact_lock(?)"), eq(Boolean.class), any(Object[].class));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    private static TrafficPartitionManager manager(PartitionGranularity granularity, int premake, int retentionDays) {
+        TrafficPartitionManager manager = new TrafficPartitionManager(null, null, true, granularity, premake, retentionDays);
+        ReflectionTestUtils.setField(manager, "clock", CLOCK);
+        return manager;
+    }
+}
@@ -0,0 +1,127 @@
+package com.uums.api.tenant.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.uums.api.tenant.dto.ApiCallCount;
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import com.uums.api.tenant.dto.ServiceTrafficSketchResponse;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class TrafficSketchTrackerTest {
+
+    @Mock
+    private TrafficSketchRepository repository;
+
+    private TrafficSketchTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new TrafficSketchTracker(repository, "node-a", 168);
+    }
+
+    @Test
+    void summaryShouldEstimateDistinctCountsAndTopApis() {
+        List<ServiceTrafficEventResponse> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            events.add(event(7L, "api-" + (i % 50), "caller-" + (i % 200), LocalDateTime.now()));
+        }
+        for (int i = 0; i < 300; i++) {
+            events.add(event(7L, "checkout", "caller-1", LocalDateTime.now()));
+        }
+        tracker.onTrafficEvents(events);
+        when(repository.findByService(eq(7L), any())).thenReturn(List.of());
+
+        ServiceTrafficSketchResponse summary = tracker.summary(7L, 24, 3);
+
+        assertTrue(Math.abs(summary.distinctApis() - 51) <= 2, "distinct apis " + summary.distinctApis());
+        assertTrue(Math.abs(summary.distinctCallers() - 200) <= 6, "distinct callers " + summary.distinctCallers());
+        assertEquals(3, summary.topApis().size());
+        assertEquals(new ApiCallCount("checkout", 300), summary.topApis().get(0));
+    }
+
+    @Test
+    void summaryShouldMergeSketchesFlushedByOtherNodes() {
+        tracker.onTrafficEvents(List.of(event(7L, "checkout", "caller-1", LocalDateTime.now())));
+        ServiceTrafficSketch remote = new ServiceTrafficSketch();
+        remote.add("checkout", "caller-2");
+        remote.add("refund", "caller-2");
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        when(repository.findByService(eq(7L), any()))
+                .thenReturn(List.of(new StoredSketch("node-b", 7L, hour, remote.toBytes())));
+
+        ServiceTrafficSketchResponse summary = tracker.summary(7L, 1, 10);
+
+        assertEquals(2, summary.distinctApis());
+        assertEquals(2, summary.distinctCallers());
+        assertEquals(new ApiCallCount("checkout", 2), summary.topApis().get(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushShouldFoldExistingRowOnceAndWriteDirtyBucketsOnly() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime hour = now.truncatedTo(ChronoUnit.HOURS);
+        ServiceTrafficSketch earlier = new ServiceTrafficSketch();
+        earlier.add("refund", "caller-9");
+        when(repository.findByNode("node-a", 7L, hour))
+                .thenReturn(List.of(new StoredSketch("node-a", 7L, hour, earlier.toBytes())));
+        tracker.onTrafficEvents(List.of(event(7L, "checkout", "caller-1", now)));
+
+        tracker.flush(now);
+        tracker.flush(now);
+
+        ArgumentCaptor<List<StoredSketch>> rows = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(rows.capture());
+        assertEquals(1, rows.getValue().size());
+        ServiceTrafficSketch written = ServiceTrafficSketch.fromBytes(rows.getValue().get(0).payload());
+        assertEquals(2, written.distinctApis());
+        assertEquals(2, written.distinctCallers());
+    }
+
+    @Test
+    void dirtyKeyWithoutBucketShouldNotStopLaterFlushes() {
+        LocalDateTime now = LocalDateTime.now();
+        tracker.onTrafficEvents(List.of(event(7L, "checkout", "caller-1", now)));
+        ((Map<?, ?>) ReflectionTestUtils.getField(tracker, "buckets")).clear();
+
+        tracker.flush(now);
+        tracker.onTrafficEvents(List.of(event(7L, "refund", "caller-2", now)));
+        tracker.flush(now);
+
+        assertEquals(0L, tracker.metrics().get("traffic.sketch.flush-failures"));
+        assertEquals(2L, tracker.metrics().get("traffic.sketch.flushes"));
+    }
+
+    @Test
+    void eventsOlderThanPreviousHourShouldBeCountedAsLate() {
+        tracker.onTrafficEvents(List.of(event(7L, "checkout", "caller-1", LocalDateTime.now().minusHours(3))));
+
+        tracker.flush(LocalDateTime.now());
+
+        assertEquals(1L, tracker.metrics().get("traffic.sketch.late-events"));
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    private static ServiceTrafficEventResponse event(Long serviceId, String apiName, String callerId, LocalDateTime time) {
+        return new ServiceTrafficEventResponse(1L, serviceId, "billing", apiName, "{}", "OK", time, null, callerId);
+    }
+}
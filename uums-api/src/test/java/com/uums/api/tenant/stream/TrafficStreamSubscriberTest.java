@@ -0,0 +1,60 @@
+package com.uums.api.tenant.stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class TrafficStreamSubscriberTest {
+
+    @Test
+    void fullBufferShouldDropOldestAndReportDroppedCount() throws IOException {
+        SseEmitter emitter = mock(SseEmitter.class);
+        TrafficStreamSubscriber subscriber = new TrafficStreamSubscriber(emitter, null, null, 4);
+        for (long id = 1; id <= 6; id++) {
+            subscriber.enqueue(event(id, "checkout", "OK"));
+        }
+
+        subscriber.drain();
+
+        // one "dropped" notice for events 1 and 2, then events 3..6
+        verify(emitter, times(5)).send(any(SseEmitter.SseEventBuilder.class));
+        assertFalse(subscriber.hasPendingWork());
+    }
+
+    @Test
+    void filterShouldMatchApiNameAndStatus() {
+        TrafficStreamSubscriber subscriber = new TrafficStreamSubscriber(mock(SseEmitter.class), "checkout", "FAILED", 4);
+
+        assertTrue(subscriber.matches(event(1, "checkout", "FAILED")));
+        assertFalse(subscriber.matches(event(2, "checkout", "OK")));
+        assertFalse(subscriber.matches(event(3, "refund", "FAILED")));
+    }
+
+    @Test
+    void sendFailureShouldCloseSubscriber() throws IOException {
+        SseEmitter emitter = mock(SseEmitter.class);
+        doThrow(new IOException("broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        TrafficStreamSubscriber subscriber = new TrafficStreamSubscriber(emitter, null, null, 4);
+        subscriber.enqueue(event(1, "checkout", "OK"));
+
+        subscriber.drain();
+
+        verify(emitter).complete();
+        assertFalse(subscriber.hasPendingWork());
+    }
+
+    private static ServiceTrafficEventResponse event(long id, String apiName, String status) {
+        return new ServiceTrafficEventResponse(
+                id, 7L, "billing", apiName, "{}", status, LocalDateTime.now(), null, null);
+    }
+}
@@ -0,0 +1,60 @@
+package com.uums.api.tenant.window;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.uums.api.tenant.TrafficEventQuery;
+import com.uums.api.tenant.dto.ServiceTrafficEventResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class TrafficHotWindowTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Test
+    void recentPageShouldBeServedNewestFirst() {
+        TrafficHotWindow window = new TrafficHotWindow(true, 10, 100);
+        window.onTrafficEvents(LongStream.rangeClosed(1, 5).mapToObj(id -> event(id, NOW.plusSeconds(id))).toList());
+
+        List<ServiceTrafficEventResponse> page = window.find(query(null), 3).orElseThrow();
+
+        assertEquals(List.of(5L, 4L, 3L), page.stream().map(ServiceTrafficEventResponse::id).toList());
+        assertEquals(1L, window.metrics().get("traffic.window.hits"));
+    }
+
+    @Test
+    void rangeOlderThanWindowShouldMiss() {
+        TrafficHotWindow window = new TrafficHotWindow(true, 3, 100);
+        window.onTrafficEvents(LongStream.rangeClosed(1, 5).mapToObj(id -> event(id, NOW.plusSeconds(id))).toList());
+
+        // events 1 and 2 were overwritten, so a range reaching back to them cannot be answered
+        assertTrue(window.find(query(NOW.plusSeconds(1)), 10).isEmpty());
+        assertEquals(3, window.find(query(NOW.plusSeconds(3)), 10).orElseThrow().size());
+        assertEquals(1L, window.metrics().get("traffic.window.misses"));
+    }
+
+    @Test
+    void leastRecentlyUsedServiceShouldBeEvictedAtGlobalCap() {
+        TrafficHotWindow window = new TrafficHotWindow(true, 10, 20);
+        window.onTrafficEvents(List.of(
+                event(1, 1L, NOW.plusSeconds(1)), event(2, 2L, NOW.plusSeconds(1)), event(3, 3L, NOW.plusSeconds(1))));
+
+        assertEquals(2, window.metrics().get("traffic.window.services"));
+        assertEquals(1L, window.metrics().get("traffic.window.evictions"));
+    }
+
+    private static TrafficEventQuery query(LocalDateTime from) {
+        return new TrafficEventQuery(7L, null, null, from, null, null, null);
+    }
+
+    private static ServiceTrafficEventResponse event(long id, LocalDateTime eventTime) {
+        return event(id, 7L, eventTime);
+    }
+
+    private static ServiceTrafficEventResponse event(long id, long serviceId, LocalDateTime eventTime) {
+        return new ServiceTrafficEventResponse(id, serviceId, "billing", "checkout", "{}", "OK", eventTime, null, null);
+    }
+}